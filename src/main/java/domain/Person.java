@@ -1,33 +1,57 @@
 package domain;
 
+import domain.type.IdNumberConverter;
 import domain.type.SchoolRank;
+import domain.type.SchoolRankConverter;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import jakarta.persistence.*;
 
 @Entity
-@Table(name = "student")
+// hbm2ddl 은 PK, FK 제약조건만 만든다. 조회 조건, 정렬에 쓰는 컬럼은 인덱스를 직접 선언 (IndexUsageTests 에서 실행계획 검증)
+@Table(name = "student",
+        uniqueConstraints = @UniqueConstraint(name = "uk_student_school_id", columnNames = "school_id"), // 학번, 유니크 인덱스로 조회
+        indexes = {
+                @Index(name = "idx_student_name", columnList = "name, id"), // name =, like 'prefix%', keyset 정렬 (name, id)
+                @Index(name = "idx_student_email", columnList = "email"),
+                @Index(name = "idx_student_school_class", columnList = "school_class, id") // FK 는 인덱스가 자동으로 생기지 않는 DB 가 많다. keyset 정렬 (myClass.id, id)
+        })
+@DynamicUpdate // 바이트코드 향상 더티체킹으로 변경된 컬럼만 update
+// 자주 쓰는 조회는 named query, 시작 시 한번 검증하고 문자열이 고정되어 쿼리 계획 캐시에서 재사용된다. (QueryPlanCacheTests 참고)
+@NamedQuery(name = "Person.findAllWithClass", query = "select p from Person p inner join fetch p.myClass c")
+@NamedQuery(name = "Person.findByClassId", query = "select p from Person p where p.myClass.id = :classId order by p.id")
+@NamedQuery(name = "Person.findByIdNumber", query = "select p from Person p where p.idNumber = :idNumber")
+@NamedEntityGraph(name = "person.withClass", attributeNodes = @NamedAttributeNode("myClass"))
+@NamedEntityGraph(name = "person.withClassAndSchool", attributeNodes = @NamedAttributeNode(value = "myClass", subgraph = "myClass"),
+        subgraphs = @NamedSubgraph(name = "myClass", attributeNodes = @NamedAttributeNode("school")))
 @Getter
 @NoArgsConstructor
 public class Person {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq_generator")
+    @SequenceGenerator(name = "person_seq_generator", sequenceName = "student_seq", allocationSize = 50) // pooled optimizer, 시퀀스 1회 호출로 id 50개 확보
     private Long id;
 
-    @Column(name = "school_id")
+    @Version
+    private Long version;
+
+    // 행 크기를 줄이기 위해 학번, 구분은 숫자로 저장하고 문자열 컬럼은 길이를 지정한다. (StudentCompactMigration 참고)
+    @Convert(converter = IdNumberConverter.class)
+    @Column(name = "school_id") // INTEGER
     private String idNumber;
 
-    @Enumerated(EnumType.STRING)
-    @Column(name = "rank")
+    @Convert(converter = SchoolRankConverter.class)
+    @Column(name = "rank") // SMALLINT
     private SchoolRank rank;
 
-    @Column(name = "name")
+    @Column(name = "name", length = 50)
     private String name;
 
-    @Column
+    @Column(length = 100)
     private String email;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -38,6 +62,10 @@ public class Person {
     public void changeName(String name) {
         this.name = name;
     }
+
+    public void changeRank(SchoolRank rank) {
+        this.rank = rank;
+    }
     @Builder
     public Person(Long id, String name, String email, String idNumber, SchoolRank rank) {
         this.id = id;
@@ -0,0 +1,55 @@
+package domain;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import jakarta.persistence.*;
+import java.io.Serializable;
+
+/**
+ * Person.name, email(local part) 부분 검색용 n-gram 색인 (name 은 연속된 2글자, email 은 3글자, Ngrams 참고)
+ * support.search.PersonSearchIndexer 가 Person 저장, 변경, 삭제 시 함께 갱신하고 domain.query.PersonSearchQuery 로 조회한다.
+ * 조회는 항상 student 와 다시 비교하므로 삭제된 Person 의 색인이 남아있어도 결과에 나오지 않는다.
+ */
+@Entity
+@Table(name = "person_ngram", indexes = @Index(name = "idx_person_ngram_person", columnList = "person_id")) // PK (field, gram, person_id) 는 gram 별 person_id 목록(posting)
+@Getter
+@NoArgsConstructor
+public class PersonNgram {
+    public enum Field {
+        NAME(2),
+        EMAIL(3);
+
+        private final int gramLength;
+
+        Field(int gramLength) {
+            this.gramLength = gramLength;
+        }
+
+        public int getGramLength() {
+            return gramLength;
+        }
+    }
+
+    @EmbeddedId
+    private Key key;
+
+    @Embeddable
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        @Enumerated(EnumType.STRING)
+        @Column(name = "field", length = 5)
+        private Field field;
+
+        @Column(name = "gram", length = 3)
+        private String gram;
+
+        @Column(name = "person_id") // 외래키를 두지 않는다. (Person insert 가 JDBC batch 로 나중에 실행될 수 있음)
+        private Long personId;
+    }
+}
@@ -4,28 +4,43 @@ import jakarta.persistence.*;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "school")
+@Table(name = "school", indexes = @Index(name = "idx_school_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "school") // 2차 캐시, region 별 설정은 application.conf
+@NamedQuery(name = "School.findByName", query = "select s from School s where s.name = :name",
+        hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")) // 쿼리 캐시
+@NamedEntityGraph(name = "school.withClasses", attributeNodes = @NamedAttributeNode("classList")) // 유스케이스별 로딩 범위는 FetchPlan 참고
 @Getter
 @NoArgsConstructor
 public class School {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "school_seq_generator")
+    @SequenceGenerator(name = "school_seq_generator", sequenceName = "school_seq", allocationSize = 50)
     private Long id;
 
+    @Version // Long 이면 classList 를 함께 로딩하며 SchoolClass 를 2차 캐시에 넣을 때 아직 version 이 null 인 School 을 저장 전(transient)으로 판단하므로 primitive, 저장 여부는 id 로 판단
+    private long version;
+
     @Column(name = "name")
     private String name;
 
-    @OneToMany(mappedBy = "school", cascade = {CascadeType.PERSIST, CascadeType.REMOVE}, fetch = FetchType.EAGER) // classList 에 persist, remove 전이
+    @OneToMany(mappedBy = "school", cascade = {CascadeType.PERSIST, CascadeType.REMOVE}, fetch = FetchType.LAZY) // classList 에 persist, remove 전이, 함께 필요하면 FetchPlan.SCHOOL_WITH_CLASSES
+    @BatchSize(size = 50) // 여러 학교의 classList 를 in 절로 50개씩 묶어 조회
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "school_class_list") // 컬렉션 캐시는 SchoolClass 의 id만 저장하므로 SchoolClass 엔티티도 캐시되어야 함
     private List<SchoolClass> classList = new ArrayList<>();
 
     public void addClass(SchoolClass schoolClass) {
         schoolClass.setSchool(this); // 연관관계의 주인에 class 설정
-        classList.add(schoolClass);
+        classList.add(schoolClass); // contains 로 확인하면 지연로딩 컬렉션이 초기화되므로 add 만 한다.
     }
 
     @Builder
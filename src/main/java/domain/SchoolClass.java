@@ -5,26 +5,49 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.jpa.HibernateHints;
 
 import jakarta.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "school_class")
+@Table(name = "school_class", indexes = {
+        @Index(name = "idx_school_class_name", columnList = "name"),
+        @Index(name = "idx_school_class_school", columnList = "school_id") // FK, School.classList 지연로딩
+})
+@DynamicUpdate
+@BatchSize(size = 100) // Person.myClass 프록시 초기화 시 다른 반 프록시도 in 절로 함께 조회
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "school_class")
+@NamedQuery(name = "SchoolClass.findByName", query = "select c from SchoolClass c where c.name = :name",
+        hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+@NamedQuery(name = "SchoolClass.findWithPersonsByIds", query = "select c from SchoolClass c left join fetch c.personList where c.id in :ids") // SchoolClassPageQuery
+@NamedEntityGraph(name = "class.withPersons", attributeNodes = @NamedAttributeNode("personList"))
+@NamedEntityGraph(name = "class.withSchool", attributeNodes = @NamedAttributeNode("school"))
 @Getter
 @NoArgsConstructor
 public class SchoolClass {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "school_class_seq_generator")
+    @SequenceGenerator(name = "school_class_seq_generator", sequenceName = "school_class_seq", allocationSize = 50)
     private Long id;
 
+    @Version // 낙관적 락, update/delete 시 where version=? 로 확인하고 1 증가, 다른 트랜잭션이 먼저 수정했으면 OptimisticLockException
+    private Long version;
+
     @Column(name = "name")
     private String name;
 
     // mappedBy는 읽기전용 필드 // personList 에 담긴 엔티티에 대해 persist 영속성전이
     // orphanRemoval: 부모 엔티티와 연관관계가 끊어진 자식 엔티티를 고아객체로 보고 자동으로 삭제해주는 기능
+    // @BatchSize: personList 하나를 초기화할 때 영속성 컨텍스트의 초기화되지 않은 다른 반 personList 도 100개씩 in 절로 함께 채운다.
+    // @Fetch(SUBSELECT) 는 페이징한 반 목록이어도 서브쿼리가 offset/limit 없이 원래 쿼리를 다시 실행해 모든 반의 학생을 읽으므로 사용하지 않는다. (BatchFetchTests 참고)
     @OneToMany(mappedBy = "myClass", cascade = {CascadeType.PERSIST}, orphanRemoval = true, fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<Person> personList = new ArrayList<>();
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,7 +57,7 @@ public class SchoolClass {
 
     public void addPerson(Person person) {
         person.setMyClass(this); // 연관관계의 주인에 class 설정
-        this.personList.add(person); // OOP 관점에서 봤을 때 얘도 설정해주어야 함
+        this.personList.add(person); // OOP 관점에서 봤을 때 얘도 설정해주어야 함, contains 로 확인하면 지연로딩 컬렉션이 초기화되므로 add 만 한다.
     }
     public void removePerson(Person person) {
         this.personList.remove(person);
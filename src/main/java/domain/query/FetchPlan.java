@@ -0,0 +1,70 @@
+package domain.query;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.SpecHints;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 유스케이스별 로딩 범위 (엔티티에 정의한 @NamedEntityGraph)
+ * 연관관계는 모두 지연로딩으로 두고, 함께 필요한 연관관계만 엔티티 그래프로 지정해 조인으로 한번에 가져온다.
+ * fetchgraph 힌트로 적용하므로 그래프에 없는 연관관계는 지연로딩된다.
+ * 같은 로딩 범위를 em.find, JPQL, Querydsl 에 똑같이 적용할 수 있어 join fetch 문자열을 쿼리마다 반복하지 않아도 된다.
+ *
+ * <pre>
+ * School school = FetchPlan.SCHOOL_WITH_CLASSES.find(em, schoolId);
+ * List&lt;Person&gt; personList = FetchPlan.PERSON_WITH_CLASS.apply(em, em.createQuery("select p from Person p", Person.class))
+ *         .getResultList();
+ * </pre>
+ * 컬렉션 그래프(SCHOOL_WITH_CLASSES, CLASS_WITH_PERSONS)는 컬렉션 페치 조인과 같으므로 페이징에는 SchoolClassPageQuery 를 사용한다.
+ */
+public record FetchPlan<T>(Class<T> entityType, String graphName) {
+    public static final FetchPlan<School> SCHOOL_WITH_CLASSES = new FetchPlan<>(School.class, "school.withClasses");
+    public static final FetchPlan<SchoolClass> CLASS_WITH_PERSONS = new FetchPlan<>(SchoolClass.class, "class.withPersons");
+    public static final FetchPlan<SchoolClass> CLASS_WITH_SCHOOL = new FetchPlan<>(SchoolClass.class, "class.withSchool");
+    public static final FetchPlan<Person> PERSON_WITH_CLASS = new FetchPlan<>(Person.class, "person.withClass");
+    public static final FetchPlan<Person> PERSON_WITH_CLASS_AND_SCHOOL = new FetchPlan<>(Person.class, "person.withClassAndSchool");
+
+    public static final List<FetchPlan<?>> ALL = List.of(
+            SCHOOL_WITH_CLASSES, CLASS_WITH_PERSONS, CLASS_WITH_SCHOOL, PERSON_WITH_CLASS, PERSON_WITH_CLASS_AND_SCHOOL);
+
+    /**
+     * @throws IllegalArgumentException 그래프가 없거나 다른 엔티티의 그래프인 경우
+     */
+    @SuppressWarnings("unchecked")
+    public EntityGraph<T> graph(EntityManager em) {
+        for (EntityGraph<? super T> graph : em.getEntityGraphs(entityType)) {
+            if (graph.getName().equals(graphName)) {
+                return (EntityGraph<T>) graph;
+            }
+        }
+        throw new IllegalArgumentException("entity graph " + graphName + " is not defined for " + entityType.getName());
+    }
+
+    public Map<String, Object> hints(EntityManager em) {
+        return Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, graph(em));
+    }
+
+    public T find(EntityManager em, Object id) {
+        return em.find(entityType, id, hints(em));
+    }
+
+    /**
+     * query 는 entityType 을 조회하는 쿼리여야 한다.
+     */
+    public TypedQuery<T> apply(EntityManager em, TypedQuery<T> query) {
+        return query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, graph(em));
+    }
+
+    public JPAQuery<T> apply(EntityManager em, JPAQuery<T> query) {
+        query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, graph(em));
+        return query;
+    }
+}
@@ -0,0 +1,14 @@
+package domain.query;
+
+import java.util.List;
+
+/**
+ * keyset(seek) 페이징 결과
+ * nextToken 은 마지막 행의 정렬 키를 담은 불투명(opaque) 문자열로 다음 페이지 조회 시 그대로 넘겨주면 된다.
+ * 다음 페이지가 없으면 null 이다.
+ */
+public record KeysetPage<T>(List<T> content, String nextToken) {
+    public boolean hasNext() {
+        return nextToken != null;
+    }
+}
@@ -0,0 +1,161 @@
+package domain.query;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import domain.Person;
+import domain.QPerson;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Person 목록 keyset(seek) 페이징
+ * setFirstResult(offset) 페이징은 offset 만큼 행을 읽고 버리므로 뒤 페이지로 갈수록 느려진다.
+ * keyset 페이징은 이전 페이지 마지막 행의 (정렬키, id) 다음부터 조회(where 조건)하므로 몇 번째 페이지든 비용이 같다.
+ * 정렬키가 null 인 행은 마지막에 온다. (nulls last)
+ * nulls last 정렬, or 로 이어진 seek 조건은 (정렬키, id) 인덱스를 타지 못하므로 (IndexUsageTests 참고)
+ * 정렬키가 있는 행과 null 인 행을 나눠 각각 인덱스 범위로 조회한다. 두 범위가 만나는 페이지만 쿼리가 2번 나간다.
+ */
+public class PersonKeysetQuery {
+    public enum Order {
+        CLASS, // (myClass.id, id)
+        NAME   // (name, id)
+    }
+
+    private final EntityManager em;
+
+    public PersonKeysetQuery(EntityManager em) {
+        this.em = em;
+    }
+
+    public KeysetPage<Person> findPage(Order order, String token, int size) {
+        checkSize(size);
+        Cursor cursor = Cursor.decode(order, token);
+        String key = order == Order.CLASS ? "p.myClass.id" : "p.name";
+
+        List<Person> rows = new ArrayList<>(size + 1);
+        if (cursor == null || cursor.key() != null) {
+            // 1. 정렬키가 있는 행, (key, id) > (:key, :id) 를 인덱스 범위 조건(key >= :key)이 되도록 풀어쓴 seek 조건
+            TypedQuery<Person> query = em.createQuery(cursor == null
+                    ? "select p from Person p where " + key + " is not null order by " + key + ", p.id"
+                    : "select p from Person p where " + key + " >= :key and (" + key + " > :key or p.id > :id) order by " + key + ", p.id", Person.class);
+            if (cursor != null) {
+                query.setParameter("key", cursor.key())
+                        .setParameter("id", cursor.id());
+            }
+            rows.addAll(query
+                    .setMaxResults(size + 1) // 다음 페이지 존재 여부를 알기 위해 1건 더 조회
+                    .getResultList());
+        }
+        if (rows.size() <= size) {
+            // 2. 정렬키가 있는 행을 다 읽었으면 이어서 정렬키가 null 인 행 (nulls last)
+            TypedQuery<Person> query = em.createQuery(cursor != null && cursor.key() == null
+                    ? "select p from Person p where " + key + " is null and p.id > :id order by p.id"
+                    : "select p from Person p where " + key + " is null order by p.id", Person.class);
+            if (cursor != null && cursor.key() == null) {
+                query.setParameter("id", cursor.id());
+            }
+            rows.addAll(query
+                    .setMaxResults(size + 1 - rows.size())
+                    .getResultList());
+        }
+        return toPage(order, rows, size);
+    }
+
+    public KeysetPage<Person> findPageWithQuerydsl(Order order, String token, int size) {
+        checkSize(size);
+        Cursor cursor = Cursor.decode(order, token);
+        QPerson p = QPerson.person;
+        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+
+        List<Person> rows = new ArrayList<>(size + 1);
+        if (cursor == null || cursor.key() != null) {
+            BooleanExpression seek;
+            OrderSpecifier<?> keyOrder;
+            if (order == Order.CLASS) {
+                keyOrder = p.myClass.id.asc();
+                Long key = cursor == null ? null : (Long) cursor.key();
+                seek = key == null
+                        ? p.myClass.id.isNotNull()
+                        : p.myClass.id.goe(key).and(p.myClass.id.gt(key).or(p.id.gt(cursor.id())));
+            } else {
+                keyOrder = p.name.asc();
+                String key = cursor == null ? null : (String) cursor.key();
+                seek = key == null
+                        ? p.name.isNotNull()
+                        : p.name.goe(key).and(p.name.gt(key).or(p.id.gt(cursor.id())));
+            }
+            rows.addAll(queryFactory
+                    .selectFrom(p)
+                    .where(seek)
+                    .orderBy(keyOrder, p.id.asc())
+                    .limit(size + 1)
+                    .fetch());
+        }
+        if (rows.size() <= size) {
+            BooleanExpression keyIsNull = order == Order.CLASS ? p.myClass.id.isNull() : p.name.isNull();
+            rows.addAll(queryFactory
+                    .selectFrom(p)
+                    .where(keyIsNull, cursor != null && cursor.key() == null ? p.id.gt(cursor.id()) : null)
+                    .orderBy(p.id.asc())
+                    .limit(size + 1 - rows.size())
+                    .fetch());
+        }
+        return toPage(order, rows, size);
+    }
+
+    private static void checkSize(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+    }
+
+    private KeysetPage<Person> toPage(Order order, List<Person> rows, int size) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<Person> content = rows.subList(0, size);
+        Person last = content.get(size - 1);
+        // myClass 는 지연로딩 프록시지만 id 조회는 초기화 없이 가능하다.
+        Object key = order == Order.CLASS ? (last.getMyClass() == null ? null : last.getMyClass().getId()) : last.getName();
+        return new KeysetPage<>(content, new Cursor(order, key, last.getId()).encode());
+    }
+
+    private record Cursor(Order order, Object key, Long id) {
+        // 토큰 형식: 정렬종류:id:키 (키가 null 이면 N, 아니면 V + 키)
+        String encode() {
+            String raw = order.name() + ":" + id + ":" + (key == null ? "N" : "V" + key);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(Order order, String token) {
+            if (token == null) {
+                return null; // 첫 페이지
+            }
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split(":", 3);
+                if (parts.length != 3 || !parts[0].equals(order.name())) {
+                    throw new IllegalArgumentException("token is not for order " + order + ": " + token);
+                }
+                Long id = Long.valueOf(parts[1]);
+                String value = parts[2];
+                if (value.equals("N")) {
+                    return new Cursor(order, null, id);
+                }
+                if (!value.startsWith("V")) {
+                    throw new IllegalArgumentException("invalid token: " + token);
+                }
+                Object key = order == Order.CLASS ? Long.valueOf(value.substring(1)) : value.substring(1);
+                return new Cursor(order, key, id);
+            } catch (IllegalArgumentException e) { // Base64, 숫자 형식 오류 포함
+                throw new IllegalArgumentException("invalid token: " + token, e);
+            }
+        }
+    }
+}
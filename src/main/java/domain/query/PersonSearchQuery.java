@@ -0,0 +1,149 @@
+package domain.query;
+
+import domain.Person;
+import domain.PersonNgram;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import support.search.Ngrams;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Person name, email 부분 검색 (n-gram 색인, PersonNgram 참고)
+ * like '%키워드%' 는 인덱스를 쓰지 못해 student 전체를 읽는다. 여기서는
+ * 1. 검색어의 gram 마다 색인 행 수를 세어 가장 적은(선택도가 높은) gram 을 고른 뒤
+ * 2. 그 gram 의 색인 행마다 student 를 pk 로 찾아 like 비교(검증)하고 maxResults 건까지 가져온다.
+ * 검색어의 모든 gram 이 흔하면(ex. "이름") 검증할 행이 많아지지만 student 전체가 아니라 그 gram 의 색인 행만 읽는다.
+ * gram 보다 짧은 검색어(name 1글자, email 2글자 이하)는 색인이 없어 like 로 조회한다.
+ * email 은 local part 만 색인하므로
+ * 1. @ 가 없는 검색어는 local part 에서 찾고 ("kim" 은 "kim@naver.com" 과 일치, "naver" 는 일치하지 않음)
+ * 2. @ 가 있는 검색어는 주소 전체에서 찾는다. @ 앞 글자로 색인을 고르고, @ 앞이 gram 보다 짧은 도메인 검색("@naver")은 like 로 조회한다.
+ *    도메인은 대부분의 행과 일치해 like 가 앞에서부터 읽다가 maxResults 건을 금방 찾는다.
+ * 결과는 id 순이다.
+ */
+public class PersonSearchQuery {
+    private static final String COUNT_GRAM = "select count(*) from (select 1 from person_ngram where field = ? and gram = ? fetch first ? rows only) g";
+    private static final int COUNT_LIMIT = 10_000;
+    private static final int RARE_COUNT = 256;
+
+    private final EntityManager em;
+
+    public PersonSearchQuery(EntityManager em) {
+        this.em = em;
+    }
+
+    public List<Long> findIdsByName(String keyword, int maxResults) {
+        checkKeyword(keyword);
+        return findIds(PersonNgram.Field.NAME, keyword, "%" + escapeLike(Ngrams.normalize(keyword)) + "%", maxResults);
+    }
+
+    public List<Long> findIdsByEmail(String keyword, int maxResults) {
+        checkKeyword(keyword);
+        int at = keyword.indexOf('@');
+        if (at < 0) {
+            return findIds(PersonNgram.Field.EMAIL, keyword, "%" + escapeLike(Ngrams.normalize(keyword)) + "%@%", maxResults);
+        }
+        return findIds(PersonNgram.Field.EMAIL, keyword.substring(0, at), "%" + escapeLike(Ngrams.normalize(keyword)) + "%", maxResults);
+    }
+
+    /**
+     * 검색한 id 로 Person 을 batch 조회(in 절, 100개씩), 영속성 컨텍스트에 있는 Person 은 조회하지 않는다.
+     */
+    public List<Person> findByName(String keyword, int maxResults) {
+        return load(findIdsByName(keyword, maxResults));
+    }
+
+    public List<Person> findByEmail(String keyword, int maxResults) {
+        return load(findIdsByEmail(keyword, maxResults));
+    }
+
+    /**
+     * indexedKeyword 의 gram 으로 색인을 골라 pattern 으로 검증한다.
+     */
+    private List<Long> findIds(PersonNgram.Field field, String indexedKeyword, String pattern, int maxResults) {
+        String column = field == PersonNgram.Field.NAME ? "p.name" : "p.email";
+        if (indexedKeyword.length() < field.getGramLength()) {
+            // 색인하지 않는 짧은 검색어, 대부분 흔해서 앞에서부터 읽다가 maxResults 건을 찾으면 멈춘다.
+            return em.createQuery("select p.id from Person p where lower(" + column + ") like :pattern escape '\\' order by p.id", Long.class)
+                    .setParameter("pattern", pattern)
+                    .setMaxResults(maxResults)
+                    .getResultList();
+        }
+        String gram = rarestGram(field, indexedKeyword);
+        if (gram == null) {
+            return List.of();
+        }
+        // join 으로 쓰면 H2 가 student 를 먼저 전체 조회할 수 있어 exists 로 색인 -> student pk 순서를 고정한다.
+        return em.createQuery("select g.key.personId from PersonNgram g " +
+                        "where g.key.field = :field and g.key.gram = :gram " +
+                        "and exists (select 1 from Person p where p.id = g.key.personId and lower(" + column + ") like :pattern escape '\\') " +
+                        "order by g.key.personId", Long.class)
+                .setParameter("field", field)
+                .setParameter("gram", gram)
+                .setParameter("pattern", pattern)
+                .setMaxResults(maxResults)
+                .getResultList();
+    }
+
+    /**
+     * 색인 행이 가장 적은 gram, 색인에 없는 gram 이 있으면 null (모든 gram 이 있어야 일치할 수 있다)
+     * gram 마다 색인 행을 COUNT_LIMIT 건까지만 세고(흔한 gram 전체를 세지 않도록), RARE_COUNT 보다 적은 gram 을 찾으면 나머지는 세지 않는다.
+     * HQL 은 from 절 서브쿼리를 지원하지 않아 JDBC 로 센다.
+     */
+    private String rarestGram(PersonNgram.Field field, String keyword) {
+        Set<String> grams = Ngrams.grams(keyword, field.getGramLength());
+        if (grams.size() == 1) {
+            return grams.iterator().next(); // 고를 gram 이 없으면 세지 않는다. (없는 gram 이면 검색 결과가 비어있음)
+        }
+        return em.unwrap(Session.class).doReturningWork(connection -> {
+            String rarestGram = null;
+            long rarestCount = Long.MAX_VALUE;
+            try (PreparedStatement statement = connection.prepareStatement(COUNT_GRAM)) {
+                for (String gram : grams) {
+                    statement.setString(1, field.name());
+                    statement.setString(2, gram);
+                    statement.setInt(3, COUNT_LIMIT);
+                    long count;
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        resultSet.next();
+                        count = resultSet.getLong(1);
+                    }
+                    if (count == 0) {
+                        return null;
+                    }
+                    if (count < rarestCount) {
+                        rarestGram = gram;
+                        rarestCount = count;
+                    }
+                    if (count < RARE_COUNT) {
+                        break;
+                    }
+                }
+            }
+            return rarestGram;
+        });
+    }
+
+    private static void checkKeyword(String keyword) {
+        if (keyword == null || keyword.isEmpty()) {
+            throw new IllegalArgumentException("keyword must not be empty");
+        }
+    }
+
+    private List<Person> load(List<Long> ids) {
+        return em.unwrap(Session.class)
+                .byMultipleIds(Person.class)
+                .withBatchSize(100)
+                .multiLoad(ids);
+    }
+
+    /**
+     * like 패턴에서 \, %, _ 를 글자 그대로 비교하도록 이스케이프 (escape '\\' 와 함께 사용)
+     */
+    static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,8 @@
+package domain.query;
+
+/**
+ * Person 목록 조회용 DTO
+ * @param className 반이 없으면 null
+ */
+public record PersonSummary(Long id, String name, String email, String className) {
+}
@@ -0,0 +1,61 @@
+package domain.query;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import domain.SchoolClass;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SchoolClass 를 personList 와 함께 페이징 조회
+ * 컬렉션 페치 조인에 페이징을 걸면 전체를 읽어와 메모리에서 페이징한다. (HHH000104)
+ * 1. 페이징은 SchoolClass id 만 조회하는 쿼리에서 DB로 처리하고
+ * 2. 해당 페이지의 id 에 대해서만 in 절 + 컬렉션 페치 조인으로 personList 를 채운다.
+ * 항상 쿼리 2번, 메모리에는 한 페이지 분량만 올라온다.
+ */
+public class SchoolClassPageQuery {
+    private final EntityManager em;
+
+    public SchoolClassPageQuery(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * @param idQuery SchoolClass id 를 중복 없이 조회하는 JPQL (ex. select c.id from SchoolClass c order by c.name, c.id)
+     */
+    public List<SchoolClass> findPageWithPersons(String idQuery, Map<String, ?> parameters, int firstResult, int maxResults) {
+        TypedQuery<Long> query = em.createQuery(idQuery, Long.class);
+        parameters.forEach(query::setParameter);
+        List<Long> ids = query
+                .setFirstResult(firstResult)
+                .setMaxResults(maxResults)
+                .getResultList();
+        return fetchWithPersons(ids);
+    }
+
+    /**
+     * @param idQuery SchoolClass id 를 중복 없이 조회하는 Querydsl 쿼리 (ex. queryFactory.select(c.id).from(c).orderBy(c.name.asc(), c.id.asc()))
+     */
+    public List<SchoolClass> findPageWithPersons(JPAQuery<Long> idQuery, int firstResult, int maxResults) {
+        List<Long> ids = idQuery.clone() // 넘겨받은 쿼리에 offset, limit 이 남지 않도록 복사해서 사용
+                .offset(firstResult)
+                .limit(maxResults)
+                .fetch();
+        return fetchWithPersons(ids);
+    }
+
+    private List<SchoolClass> fetchWithPersons(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<SchoolClass> classList = em.createNamedQuery("SchoolClass.findWithPersonsByIds", SchoolClass.class)
+                .setParameter("ids", ids) // in_clause_parameter_padding 으로 페이지 크기가 달라도 같은 SQL
+                .getResultList();
+        // in 절 조회는 순서를 보장하지 않으므로 첫번째 쿼리의 순서대로 다시 정렬
+        classList.sort(Comparator.comparingInt(schoolClass -> ids.indexOf(schoolClass.getId())));
+        return classList;
+    }
+}
@@ -0,0 +1,7 @@
+package domain.query;
+
+/**
+ * SchoolClass 목록 조회용 DTO, personList 대신 학생 수만 조회한다.
+ */
+public record SchoolClassSummary(Long id, String name, Long personCount) {
+}
@@ -0,0 +1,73 @@
+package domain.query;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import domain.QPerson;
+import domain.QSchoolClass;
+import jakarta.persistence.EntityManager;
+
+import java.util.List;
+
+/**
+ * 목록 조회를 엔티티 대신 DTO(record)로 바로 받는다.
+ * DTO 는 엔티티가 아니므로 영속성 컨텍스트에 올라가지 않고(스냅샷, 더티체킹 없음)
+ * select 절에는 DTO 생성자에 필요한 컬럼만 나간다.
+ * 조회 결과를 수정해서 저장해야 하는 경우가 아니라면 목록 조회는 DTO 로 받는다.
+ * 여러 컬럼을 Object[] 로 받는 방법(HibernateTests.TypedQueryAndQueryExample)은 인덱스로 꺼내 형변환해야 하지만 생성자 표현식은 타입이 정해진다.
+ */
+public class SummaryQuery {
+    private static final String PERSON_QUERY = "select new domain.query.PersonSummary(p.id, p.name, p.email, c.name) " +
+            "from Person p " +
+            "left join p.myClass c " + // 반이 없는 사람도 조회 (className = null)
+            "where p.name like :name escape '\\' " + // Querydsl startsWith 와 같이 %, _ 는 글자 그대로 비교
+            "order by p.id";
+    private static final String CLASS_QUERY = "select new domain.query.SchoolClassSummary(c.id, c.name, count(p)) " +
+            "from SchoolClass c " +
+            "left join c.personList p " +
+            "group by c.id, c.name " +
+            "order by c.id";
+
+    private final EntityManager em;
+
+    public SummaryQuery(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * @param namePrefix 이름이 namePrefix 로 시작하는 사람 조회
+     */
+    public List<PersonSummary> findPersons(String namePrefix) {
+        return em.createQuery(PERSON_QUERY, PersonSummary.class)
+                .setParameter("name", PersonSearchQuery.escapeLike(namePrefix) + "%")
+                .getResultList();
+    }
+
+    public List<PersonSummary> findPersonsWithQuerydsl(String namePrefix) {
+        QPerson p = QPerson.person;
+        QSchoolClass c = QSchoolClass.schoolClass;
+        return new JPAQueryFactory(em)
+                .select(Projections.constructor(PersonSummary.class, p.id, p.name, p.email, c.name))
+                .from(p)
+                .leftJoin(p.myClass, c)
+                .where(p.name.startsWith(namePrefix))
+                .orderBy(p.id.asc())
+                .fetch();
+    }
+
+    public List<SchoolClassSummary> findClasses() {
+        return em.createQuery(CLASS_QUERY, SchoolClassSummary.class)
+                .getResultList();
+    }
+
+    public List<SchoolClassSummary> findClassesWithQuerydsl() {
+        QSchoolClass c = QSchoolClass.schoolClass;
+        QPerson p = QPerson.person;
+        return new JPAQueryFactory(em)
+                .select(Projections.constructor(SchoolClassSummary.class, c.id, c.name, p.count()))
+                .from(c)
+                .leftJoin(c.personList, p)
+                .groupBy(c.id, c.name)
+                .orderBy(c.id.asc())
+                .fetch();
+    }
+}
@@ -0,0 +1,32 @@
+package domain.type;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.regex.Pattern;
+
+/**
+ * 학번 문자열(ex. "201700001") <-> INTEGER (4바이트)
+ * 0 으로 시작하거나 숫자가 아닌 학번은 되돌렸을 때 같은 문자열이 되지 않으므로 저장하지 않는다.
+ * 숫자로 저장하므로 조회 조건은 =, in, 범위만 쓸 수 있다. (like '2017%' 대신 between 201700000 and 201799999)
+ */
+@Converter
+public class IdNumberConverter implements AttributeConverter<String, Integer> {
+    private static final Pattern ID_NUMBER = Pattern.compile("[1-9][0-9]{0,9}");
+
+    @Override
+    public Integer convertToDatabaseColumn(String idNumber) {
+        if (idNumber == null) {
+            return null;
+        }
+        if (!ID_NUMBER.matcher(idNumber).matches() || Long.parseLong(idNumber) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("idNumber must be a positive integer without leading zeros: " + idNumber);
+        }
+        return Integer.valueOf(idNumber);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer idNumber) {
+        return idNumber == null ? null : idNumber.toString();
+    }
+}
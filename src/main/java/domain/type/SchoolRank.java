@@ -1,6 +1,26 @@
 package domain.type;
 
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * DB 에는 code 로 저장한다. (SchoolRankConverter)
+ * ordinal 은 선언 순서가 바뀌면 저장된 값의 의미가 바뀌므로 쓰지 않는다. 값을 추가할 때는 겹치지 않는 code 를 준다.
+ */
+@Getter
+@RequiredArgsConstructor
 public enum SchoolRank {
-    STUDENT,
-    STAFF
+    STUDENT((short) 1),
+    STAFF((short) 2);
+
+    private final short code;
+
+    public static SchoolRank fromCode(short code) {
+        for (SchoolRank rank : values()) {
+            if (rank.code == code) {
+                return rank;
+            }
+        }
+        throw new IllegalArgumentException("unknown SchoolRank code: " + code);
+    }
 }
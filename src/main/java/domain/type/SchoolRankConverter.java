@@ -0,0 +1,20 @@
+package domain.type;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * SchoolRank <-> SMALLINT (2바이트), EnumType.STRING 은 "STUDENT" 처럼 값마다 문자열 길이만큼 차지한다.
+ */
+@Converter
+public class SchoolRankConverter implements AttributeConverter<SchoolRank, Short> {
+    @Override
+    public Short convertToDatabaseColumn(SchoolRank rank) {
+        return rank == null ? null : rank.getCode();
+    }
+
+    @Override
+    public SchoolRank convertToEntityAttribute(Short code) {
+        return code == null ? null : SchoolRank.fromCode(code);
+    }
+}
@@ -0,0 +1,83 @@
+package service;
+
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import domain.Person;
+import domain.QPerson;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import support.search.PersonSearchIndexer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Person 벌크 update
+ * 엔티티를 로딩해서 값을 바꾸면(더티체킹) 조회 1번 + 변경된 행마다 update 가 나간다.
+ * 여기서는 조건에 맞는 행 전체를 update ... where 1번으로 바꾼다.
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 (SchoolPurgeService 참고)
+ * 1. 실행 전 flush 로 쓰기 지연된 변경을 먼저 반영하고
+ * 2. 실행 후 영속성 컨텍스트에 있던 Person 을 refresh 해서 이전 값이 조회되지 않게 한다. (Person 마다 select 1번)
+ *    준영속으로 만들면 아직 참조하는 SchoolClass.personList 가 이전 값을 보여주고, 커밋할 때 PERSIST 영속성 전이가 준영속 Person 을 만나 실패한다.
+ * 3. Person 과 SchoolClass.personList 는 2차 캐시 대상이 아니므로 비울 region 이 없다. student 를 조회한 쿼리 캐시는 하이버네이트가 실행 시 테이블 수정 시각으로 무효화한다.
+ * 4. version 을 1 증가시켜 실행 전에 Person 을 읽어간 트랜잭션이 이전 값으로 덮어쓰지 않고 낙관적 락 충돌로 실패하게 한다.
+ * 5. name, email 을 바꾸면 대상 id 를 먼저 조회해두고 실행 후 검색 색인을 다시 쓴다. (벌크 연산은 PersonSearchIndexer 이벤트가 발생하지 않음)
+ * 진행 중인 트랜잭션에서 사용한다.
+ */
+public class PersonBulkUpdater {
+    private static final System.Logger log = System.getLogger(PersonBulkUpdater.class.getName());
+
+    private final EntityManager em;
+
+    public PersonBulkUpdater(EntityManager em) {
+        this.em = em;
+    }
+
+    /**
+     * schoolClassId 반에서 rank 가 from 인 사람을 모두 to 로 바꾼다.
+     * @return 변경된 행 수
+     */
+    public long changeRank(Long schoolClassId, SchoolRank from, SchoolRank to) {
+        QPerson p = QPerson.person;
+        return set(p.rank, to, p.myClass.id.eq(schoolClassId), p.rank.eq(from));
+    }
+
+    /**
+     * where 조건에 맞는 Person 의 path 컬럼을 value 로 바꾼다.
+     * <pre>
+     * updater.set(QPerson.person.name, "두식이", QPerson.person.idNumber.eq("201700001"));
+     * </pre>
+     * @return 변경된 행 수
+     */
+    public <T> long set(Path<T> path, T value, Predicate... where) {
+        em.flush();
+        List<Long> reindexIds = path.equals(QPerson.person.name) || path.equals(QPerson.person.email)
+                ? new JPAQuery<>(em).select(QPerson.person.id).from(QPerson.person).where(where).fetch() // update 후에는 where 에 맞지 않을 수 있음
+                : List.of();
+        long updated = new JPAUpdateClause(em, QPerson.person)
+                .set(path, value)
+                .set(QPerson.person.version, QPerson.person.version.add(1)) // 벌크 update 는 version 을 올려주지 않으므로 직접 증가
+                .where(where)
+                .execute();
+        PersonSearchIndexer.reindex(em, reindexIds);
+        refreshManagedPersons();
+
+        log.log(System.Logger.Level.DEBUG, "updated {0} = {1}: {2} rows", path, value, updated);
+        return updated;
+    }
+
+    private void refreshManagedPersons() {
+        List<Object> managed = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class).getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Person) {
+                managed.add(entry.getKey());
+            }
+        }
+        managed.forEach(em::refresh);
+    }
+}
@@ -0,0 +1,116 @@
+package service;
+
+import domain.Person;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * 학교 전체 학생 내보내기
+ * getResultList() 는 결과 전체를 List 로 만들고 모든 엔티티가 영속성 컨텍스트에 남는다.
+ * 1. ScrollableResults(forward-only 커서)로 한 건씩 읽고 JDBC fetch size 만큼씩 DB 에서 가져온다.
+ * 2. clearEvery 건마다 영속성 컨텍스트를 비워 이미 내보낸 엔티티를 GC 대상으로 만든다.
+ * 3. 세션은 읽기 전용이므로 스냅샷을 만들지 않고 flush 도 하지 않는다.
+ * 결과 건수와 상관없이 메모리에는 clearEvery 건 정도만 올라온다.
+ * getResultStream() 도 내부적으로 ScrollableResults 를 사용하지만 중간에 clear 할 시점을 직접 정할 수 없어 scroll 을 사용한다.
+ */
+public class PersonExporter {
+    private static final System.Logger log = System.getLogger(PersonExporter.class.getName());
+    private static final String SCHOOL_QUERY = "select p from Person p " +
+            "join fetch p.myClass c " + // 반 이름을 쓰더라도 지연로딩 없이
+            "where c.school.id = :schoolId " +
+            "order by p.id";
+
+    private final SessionFactory sessionFactory;
+    private final int clearEvery;
+    private final int fetchSize;
+
+    public PersonExporter(EntityManagerFactory emf, int clearEvery, int fetchSize) {
+        if (clearEvery < 1) {
+            throw new IllegalArgumentException("clearEvery must be positive: " + clearEvery);
+        }
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("fetchSize must be positive: " + fetchSize);
+        }
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.clearEvery = clearEvery;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * schoolId 학교의 모든 학생을 id 순서로 sink 에 넘긴다.
+     * sink 에 넘긴 Person 은 다음 clear 이후 준영속 상태가 되므로 sink 밖에 보관하지 않는다.
+     */
+    public ExportResult exportSchool(Long schoolId, Consumer<Person> sink) {
+        long start = System.nanoTime();
+        long count = 0;
+        int clears = 0;
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.beginTransaction();
+            try (ScrollableResults<Person> rows = session.createQuery(SCHOOL_QUERY, Person.class)
+                    .setParameter("schoolId", schoolId)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY)) {
+                while (rows.next()) {
+                    sink.accept(rows.get());
+                    if (++count % clearEvery == 0) {
+                        session.clear();
+                        clears++;
+                    }
+                }
+            } finally {
+                session.getTransaction().rollback(); // 조회만 했으므로 커밋할 내용이 없다.
+            }
+        }
+
+        ExportResult result = new ExportResult(count, clears, System.nanoTime() - start);
+        log.log(System.Logger.Level.INFO, () -> String.format("exported %d rows (%.0f rows/sec)", result.rows(), result.rowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * RosterImporter.csvRows 와 같은 idNumber,name,email,rank 형식으로 쓴다. (헤더 포함)
+     * 쉼표, 큰따옴표, 줄바꿈이 들어간 값은 RFC 4180 과 같이 큰따옴표로 감싸고 값 안의 " 는 "" 로 쓴다.
+     */
+    public static Consumer<Person> csvWriter(Writer writer) {
+        write(writer, "idNumber,name,email,rank\n");
+        return person -> write(writer, csvField(person.getIdNumber()) + ","
+                + csvField(person.getName()) + ","
+                + csvField(person.getEmail()) + ","
+                + csvField(person.getRank()) + "\n");
+    }
+
+    private static void write(Writer writer, String line) {
+        try {
+            writer.write(line);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String field = value.toString();
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return field;
+        }
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    public record ExportResult(long rows, int clears, long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000d / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package service;
+
+import domain.Person;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import support.search.PersonSearchIndexer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * StatelessSession 을 이용한 Person 대량 등록
+ * StatelessSession 은 영속성 컨텍스트(1차 캐시, 스냅샷)가 없으므로 insert 한 엔티티가 메모리에 쌓이지 않는다.
+ * 대신 더티체킹, 영속성 전이, 지연로딩 등 영속성 컨텍스트가 제공하는 기능은 사용할 수 없다.
+ * chunkSize 건마다 커밋하여 트랜잭션 크기도 일정하게 유지한다. (insert 는 hibernate.jdbc.batch_size 단위로 묶여 나간다)
+ * StatelessSession 은 이벤트가 발생하지 않으므로 검색 색인(PersonSearchIndexer)은 chunk 마다 커밋 전에 직접 쓴다.
+ */
+public class RosterImporter {
+    private static final System.Logger log = System.getLogger(RosterImporter.class.getName());
+
+    private final SessionFactory sessionFactory;
+    private final int chunkSize;
+
+    public RosterImporter(EntityManagerFactory emf, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public ImportResult importPersons(Iterator<Person> rows) {
+        return importPersons(rows, null);
+    }
+
+    /**
+     * rows 를 끝까지 읽으며 insert 한다. schoolClassId 가 있으면 모든 Person 을 해당 반에 배정한다.
+     * 실패 시 현재 chunk 만 롤백되고 이전 chunk 는 이미 커밋된 상태로 남는다.
+     */
+    public ImportResult importPersons(Iterator<Person> rows, Long schoolClassId) {
+        long start = System.nanoTime();
+        long count = 0;
+        int chunks = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            SchoolClass schoolClass = null;
+            if (schoolClassId != null) {
+                schoolClass = session.get(SchoolClass.class, schoolClassId);
+                if (schoolClass == null) {
+                    throw new IllegalArgumentException("SchoolClass not found: " + schoolClassId);
+                }
+            }
+
+            List<Person> chunk = new ArrayList<>(chunkSize);
+            Transaction tx = session.beginTransaction();
+            try {
+                while (rows.hasNext()) {
+                    Person person = rows.next();
+                    if (schoolClass != null) {
+                        person.setMyClass(schoolClass); // 연관관계의 주인 쪽만 설정, personList 는 건드리지 않는다.
+                    }
+                    session.insert(person);
+                    chunk.add(person);
+
+                    if (++count % chunkSize == 0) {
+                        PersonSearchIndexer.index(session, chunk);
+                        chunk.clear();
+                        tx.commit();
+                        chunks++;
+                        log.log(System.Logger.Level.DEBUG, "chunk {0} committed, {1} rows", chunks, count);
+                        tx = session.beginTransaction();
+                    }
+                }
+                PersonSearchIndexer.index(session, chunk);
+                tx.commit();
+                if (count % chunkSize != 0) {
+                    chunks++;
+                }
+            } catch (RuntimeException e) {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                throw e;
+            }
+        }
+
+        ImportResult result = new ImportResult(count, chunks, System.nanoTime() - start);
+        log.log(System.Logger.Level.INFO, () -> String.format("imported %d rows in %d chunks (%.0f rows/sec)", result.rows(), result.chunks(), result.rowsPerSecond()));
+        return result;
+    }
+
+    /**
+     * idNumber,name,email,rank 형식의 CSV 를 한 줄씩 읽어 Person 으로 변환한다. (첫 줄은 헤더)
+     * 큰따옴표로 감싼 값은 RFC 4180 과 같이 쉼표, 줄바꿈을 포함할 수 있고 "" 는 " 로 읽는다. (PersonExporter.csvWriter 가 쓴 CSV)
+     * 전체를 미리 읽지 않으므로 importPersons 와 함께 사용하면 파일 크기와 상관없이 메모리 사용량이 일정하다.
+     */
+    public static Iterator<Person> csvRows(Reader reader) {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        return new Iterator<>() {
+            private List<String> next = readRecord(true);
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Person next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                List<String> columns = next;
+                if (columns.size() != 4) {
+                    throw new IllegalArgumentException("expected idNumber,name,email,rank but was: " + String.join(",", columns));
+                }
+                next = readRecord(false);
+                return Person.builder()
+                        .idNumber(emptyToNull(columns.get(0)))
+                        .name(emptyToNull(columns.get(1)))
+                        .email(emptyToNull(columns.get(2)))
+                        .rank(columns.get(3).isBlank() ? null : SchoolRank.valueOf(columns.get(3).trim()))
+                        .build();
+            }
+
+            private List<String> readRecord(boolean skipHeader) {
+                try {
+                    if (skipHeader) {
+                        csvRecord(bufferedReader);
+                    }
+                    List<String> record;
+                    do {
+                        record = csvRecord(bufferedReader);
+                    } while (record != null && record.size() == 1 && record.get(0).isBlank());
+                    return record;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * CSV 한 행의 값 목록, 더 읽을 행이 없으면 null
+     * 큰따옴표 안의 줄바꿈은 값에 포함하므로 한 행이 여러 줄일 수 있다.
+     */
+    private static List<String> csvRecord(BufferedReader reader) throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IllegalArgumentException("unterminated quoted field: " + field);
+                }
+                if (c == '"') {
+                    c = reader.read();
+                    if (c != '"') {
+                        quoted = false; // 닫는 따옴표, 다음 글자는 따옴표 밖에서 다시 읽는다.
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    private static String emptyToNull(String value) {
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    public record ImportResult(long rows, int chunks, long elapsedNanos) {
+        public double rowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : rows * 1_000_000_000d / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package service;
+
+import domain.School;
+import domain.SchoolClass;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+/**
+ * 학교 삭제 (학생 -> 반 -> 학교)
+ * em.remove(school) 는 classList(cascade REMOVE), 반마다 personList(orphanRemoval) 를 모두 로딩한 뒤 한 건씩 delete 한다.
+ * 여기서는 외래키 의존 순서대로 delete ... where 4번으로 같은 결과를 만든다. (학생의 검색 색인 PersonNgram 부터 삭제)
+ * 벌크 연산은 영속성 컨텍스트를 거치지 않으므로
+ * 1. 실행 전 flush 로 쓰기 지연된 변경을 먼저 반영하고
+ * 2. 실행 후 영속성 컨텍스트를 비워 삭제된 엔티티가 남아있지 않게 한다.
+ * 2차 캐시는 하이버네이트가 커밋 후 벌크 연산 대상 엔티티, 컬렉션 region 과 쿼리 캐시를 무효화하지만
+ * 커밋 전 같은 트랜잭션에서 find 하면 캐시에 남은 엔티티가 조회되므로 실행 직후에도 직접 비운다.
+ * 다른 엔티티매니저가 이미 로딩한 엔티티는 알 수 없으므로 해당 작업 단위가 끝난 뒤에 사용한다.
+ */
+public class SchoolPurgeService {
+    private static final System.Logger log = System.getLogger(SchoolPurgeService.class.getName());
+    private static final String DELETE_NGRAMS = "delete from PersonNgram g " +
+            "where g.key.personId in (select p.id from Person p where p.myClass.id in (select c.id from SchoolClass c where c.school.id = :schoolId))";
+    private static final String DELETE_PERSONS = "delete from Person p " +
+            "where p.myClass.id in (select c.id from SchoolClass c where c.school.id = :schoolId)";
+    private static final String DELETE_CLASSES = "delete from SchoolClass c where c.school.id = :schoolId";
+    private static final String DELETE_SCHOOL = "delete from School s where s.id = :schoolId";
+
+    private final EntityManagerFactory emf;
+
+    public SchoolPurgeService(EntityManagerFactory emf) {
+        this.emf = emf;
+    }
+
+    /**
+     * 새 트랜잭션에서 학교를 삭제한다.
+     */
+    public PurgeResult purge(Long schoolId) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            PurgeResult result = purge(em, schoolId);
+            tx.commit();
+            return result;
+        } catch (RuntimeException e) {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            throw e;
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * 진행 중인 트랜잭션에서 학교를 삭제한다. 실행 후 em 의 영속성 컨텍스트는 비워진다.
+     */
+    public PurgeResult purge(EntityManager em, Long schoolId) {
+        em.flush();
+        em.createQuery(DELETE_NGRAMS)
+                .setParameter("schoolId", schoolId)
+                .executeUpdate();
+        int persons = em.createQuery(DELETE_PERSONS)
+                .setParameter("schoolId", schoolId)
+                .executeUpdate();
+        int classes = em.createQuery(DELETE_CLASSES)
+                .setParameter("schoolId", schoolId)
+                .executeUpdate();
+        int schools = em.createQuery(DELETE_SCHOOL)
+                .setParameter("schoolId", schoolId)
+                .executeUpdate();
+        em.clear();
+        evictCache(em, schoolId);
+
+        PurgeResult result = new PurgeResult(persons, classes, schools);
+        log.log(System.Logger.Level.INFO, "purged school {0}: {1}", schoolId, result);
+        return result;
+    }
+
+    private static void evictCache(EntityManager em, Long schoolId) {
+        Cache cache = em.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(School.class, schoolId);
+        cache.evictCollectionData(School.class.getName() + ".classList", schoolId);
+        cache.evictEntityData(SchoolClass.class); // 삭제된 반의 id 는 조회하지 않았으므로 region 전체
+    }
+
+    public record PurgeResult(int persons, int classes, int schools) {
+    }
+}
@@ -0,0 +1,192 @@
+package support.migration;
+
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 이전 매핑으로 만든 student 테이블을 Person 의 현재 매핑으로 변경한다.
+ * 이전: school_id, rank('STUDENT', 'STAFF'), name, email 모두 VARCHAR(255)
+ * 이후: school_id INTEGER (IdNumberConverter), rank SMALLINT (SchoolRankConverter), name VARCHAR(50), email VARCHAR(100)
+ * 1. 변환할 수 없는 값(숫자가 아닌 학번, 모르는 rank, 길이 초과)이 있으면 아무것도 바꾸지 않고 실패한다.
+ * 2. 새 컬럼을 추가하고 id 범위 chunkSize 건씩 값을 옮기며 chunk 마다 커밋한다. (한번에 update 하면 트랜잭션이 테이블 크기만큼 커진다)
+ * 3. 이전 컬럼을 지우고 새 컬럼 이름을 바꾸고 name, email 길이를 줄인 뒤 마지막으로 학번 유니크 제약조건을 다시 만든다.
+ * 이미 변경된 테이블이면 아무것도 하지 않는다. DDL 은 단계마다 커밋되므로 3번은 단계마다 현재 컬럼, 제약조건을 보고 끝난 단계를 건너뛴다.
+ * 어느 단계에서 실패해도 다시 실행하면 이어서 끝낸다. (이전 rank 컬럼이 남아있으면 2번부터 다시 한다)
+ * 3번 동안은 매핑과 스키마가 맞지 않으므로 애플리케이션을 멈추고 실행한다.
+ */
+public class StudentCompactMigration {
+    private static final System.Logger log = System.getLogger(StudentCompactMigration.class.getName());
+    private static final String INVALID_ROWS = "select count(*) from student where " +
+            "(rank is not null and rank not in (%s)) " +
+            "or (school_id is not null and (not regexp_like(school_id, '^[1-9][0-9]{0,9}$') or (char_length(school_id) = 10 and school_id > '2147483647'))) " +
+            "or char_length(name) > 50 or char_length(email) > 100";
+    private static final String COPY_CHUNK = "update student set rank_code = case rank %s end, school_id_number = cast(school_id as integer) " +
+            "where id >= ? and id < ?";
+
+    private final SessionFactory sessionFactory;
+    private final int chunkSize;
+
+    public StudentCompactMigration(EntityManagerFactory emf, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.sessionFactory = emf.unwrap(SessionFactory.class);
+        this.chunkSize = chunkSize;
+    }
+
+    public MigrationResult migrate() {
+        long start = System.nanoTime();
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Map<String, Integer> columns = columnTypes(session);
+            if (isMigrated(session, columns)) {
+                return new MigrationResult(false, 0, 0);
+            }
+            long rows = 0;
+            int chunks = 0;
+            if (isVarchar(columns, "rank") && isVarchar(columns, "school_id")) { // 3번을 시작하기 전
+                MigrationResult copied = copy(session);
+                rows = copied.rows();
+                chunks = copied.chunks();
+                columns = columnTypes(session);
+            } else if (!columns.containsKey("rank") && !columns.containsKey("rank_code")) {
+                throw new IllegalStateException("student.rank column not found");
+            }
+            swap(session, columns);
+
+            log.log(System.Logger.Level.INFO, "migrated student: {0} rows in {1} chunks ({2} ms)",
+                    rows, chunks, (System.nanoTime() - start) / 1_000_000);
+            return new MigrationResult(true, rows, chunks);
+        }
+    }
+
+    /**
+     * 1, 2번, 새 컬럼에 값을 옮긴다. 여러번 실행해도 결과가 같다.
+     */
+    private MigrationResult copy(StatelessSession session) {
+        long invalid = count(session, INVALID_ROWS.formatted(Arrays.stream(SchoolRank.values())
+                .map(rank -> "'" + rank.name() + "'")
+                .collect(Collectors.joining(", "))));
+        if (invalid > 0) {
+            throw new IllegalStateException("student has " + invalid + " rows that cannot be migrated");
+        }
+
+        execute(session, "alter table student add column if not exists rank_code smallint");
+        execute(session, "alter table student add column if not exists school_id_number integer");
+        long rows = 0;
+        int chunks = 0;
+        String copyChunk = COPY_CHUNK.formatted(Arrays.stream(SchoolRank.values())
+                .map(rank -> "when '" + rank.name() + "' then " + rank.getCode())
+                .collect(Collectors.joining(" ")));
+        long maxId = count(session, "select coalesce(max(id), 0) from student");
+        for (long from = count(session, "select coalesce(min(id), 0) from student"); from <= maxId; from += chunkSize) {
+            long chunkStart = from;
+            Transaction tx = session.beginTransaction();
+            try {
+                rows += session.doReturningWork(connection -> {
+                    try (PreparedStatement statement = connection.prepareStatement(copyChunk)) {
+                        statement.setLong(1, chunkStart);
+                        statement.setLong(2, chunkStart + chunkSize);
+                        return statement.executeUpdate();
+                    }
+                });
+                tx.commit();
+            } catch (RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+            chunks++;
+        }
+        return new MigrationResult(true, rows, chunks);
+    }
+
+    /**
+     * 3번, 새 컬럼(rank_code, school_id_number)이 남아있는 컬럼만 이전 컬럼을 지우고 이름을 바꾼다.
+     * 이전 컬럼을 지운 뒤 실패했으면 이름만 바꾸고, 이름까지 바꿨으면 길이를 다시 지정하고 제약조건을 만든다.
+     */
+    private static void swap(StatelessSession session, Map<String, Integer> columns) {
+        if (columns.containsKey("school_id_number")) {
+            execute(session, "alter table student drop constraint if exists uk_student_school_id"); // 이전 school_id 의 제약조건
+            execute(session, "alter table student drop column if exists school_id");
+            execute(session, "alter table student rename column school_id_number to school_id");
+        }
+        if (columns.containsKey("rank_code")) {
+            execute(session, "alter table student drop column if exists rank");
+            execute(session, "alter table student rename column rank_code to rank");
+        }
+        execute(session, "alter table student alter column name set data type varchar(50)");
+        execute(session, "alter table student alter column email set data type varchar(100)");
+        execute(session, "alter table student add constraint uk_student_school_id unique (school_id)"); // 마지막 단계, 있으면 모두 끝난 것
+    }
+
+    /**
+     * 모든 단계가 끝났는지, 새 컬럼 이름이 남아있거나 제약조건이 없으면 3번 중간에 실패한 것이다.
+     */
+    private static boolean isMigrated(StatelessSession session, Map<String, Integer> columns) {
+        return Integer.valueOf(Types.SMALLINT).equals(columns.get("rank"))
+                && !columns.containsKey("rank_code")
+                && !columns.containsKey("school_id_number")
+                && hasUniqueConstraint(session);
+    }
+
+    private static boolean isVarchar(Map<String, Integer> columns, String column) {
+        return Integer.valueOf(Types.VARCHAR).equals(columns.get(column));
+    }
+
+    /**
+     * 현재 스키마 student 테이블의 컬럼 이름(소문자) -> java.sql.Types
+     */
+    private static Map<String, Integer> columnTypes(StatelessSession session) {
+        return session.doReturningWork(connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Integer> columnTypes = new HashMap<>();
+            try (ResultSet columns = metaData.getColumns(null, connection.getSchema(), metaData.storesUpperCaseIdentifiers() ? "STUDENT" : "student", null)) {
+                while (columns.next()) {
+                    columnTypes.put(columns.getString("COLUMN_NAME").toLowerCase(Locale.ROOT), columns.getInt("DATA_TYPE"));
+                }
+            }
+            return columnTypes;
+        });
+    }
+
+    private static boolean hasUniqueConstraint(StatelessSession session) {
+        return count(session, "select count(*) from information_schema.table_constraints " +
+                "where table_schema = current_schema and lower(table_name) = 'student' and lower(constraint_name) = 'uk_student_school_id'") > 0;
+    }
+
+    private static long count(StatelessSession session, String sql) {
+        return session.doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(sql)) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        });
+    }
+
+    private static void execute(StatelessSession session, String ddl) {
+        Transaction tx = session.beginTransaction();
+        session.doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(ddl);
+            }
+        });
+        tx.commit();
+    }
+
+    public record MigrationResult(boolean migrated, long rows, int chunks) {
+    }
+}
@@ -0,0 +1,41 @@
+package support.querycount;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * 지연로딩 초기화를 해당 세션의 QueryCounter 에 기록한다.
+ * 컬렉션은 role(ex. domain.SchoolClass.personList), 프록시는 엔티티 이름(ex. domain.SchoolClass)으로 기록한다.
+ * 바이트코드 향상의 enableLazyInitialization 은 꺼져 있으므로(pom.xml) 지연로딩은 항상 프록시, 컬렉션 래퍼로 일어난다.
+ * QueryCounter 를 사용하지 않는 세션에서는 아무것도 하지 않는다.
+ */
+public class LazyLoadListener implements InitializeCollectionEventListener, LoadEventListener {
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        QueryCounter counter = counterOf(event.getSession());
+        if (counter != null) {
+            counter.lazyLoaded(event.getCollection().getRole());
+        }
+    }
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType != IMMEDIATE_LOAD) { // 프록시 초기화
+            return;
+        }
+        QueryCounter counter = counterOf(event.getSession());
+        if (counter != null) {
+            counter.lazyLoaded(event.getEntityClassName());
+        }
+    }
+
+    private static QueryCounter counterOf(EventSource session) {
+        StatementInspector inspector = session.getJdbcSessionContext().getStatementInspector();
+        return inspector instanceof QueryCounter counter ? counter : null;
+    }
+}
@@ -0,0 +1,35 @@
+package support.querycount;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * 운영용 쿼리 개수 로깅
+ * hibernate.session.events.auto 에 등록하면 세션마다 생성되어 실행한 statement 수만 센다. (SQL 문자열은 다루지 않음)
+ * 세션이 닫힐 때 support.querycount.warn-threshold(기본 50) 를 넘었으면 WARNING 으로 남긴다.
+ */
+public class QueryCountLogListener extends BaseSessionEventListener {
+    private static final System.Logger log = System.getLogger(QueryCountLogListener.class.getName());
+    private static final int WARN_THRESHOLD = Integer.getInteger("support.querycount.warn-threshold", 50);
+
+    private int statements;
+    private int batches;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statements++;
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batches++;
+    }
+
+    @Override
+    public void end() {
+        int total = statements + batches;
+        System.Logger.Level level = total > WARN_THRESHOLD ? System.Logger.Level.WARNING : System.Logger.Level.DEBUG;
+        if (log.isLoggable(level)) {
+            log.log(level, "session executed {0} statements and {1} batches", statements, batches);
+        }
+    }
+}
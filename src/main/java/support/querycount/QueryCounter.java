@@ -0,0 +1,125 @@
+package support.querycount;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 엔티티매니저(작업 단위) 하나가 보낸 SQL 개수를 세고 N + 1 의심 구간을 찾는다.
+ * SQL 은 리터럴, in 절 파라미터 개수 등을 지운 모양(shape)으로 묶어 센다.
+ * 지연로딩 초기화(프록시, 컬렉션)는 LazyLoadListener 가 연관관계별로 기록한다.
+ *
+ * <pre>
+ * QueryCounter counter = new QueryCounter();
+ * EntityManager em = counter.createEntityManager(emf);
+ * ...
+ * counter.assertMaxQueries(2);
+ * </pre>
+ * 엔티티매니저 하나에서만 사용하므로 thread-safe 하지 않다.
+ */
+public class QueryCounter implements StatementInspector {
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int count;
+    private final Map<String, Integer> countsByShape = new LinkedHashMap<>();
+    private final Map<String, Integer> lazyLoadCounts = new LinkedHashMap<>();
+
+    /**
+     * 이 카운터로 SQL 을 세는 엔티티매니저를 연다.
+     */
+    public EntityManager createEntityManager(EntityManagerFactory emf) {
+        return emf.unwrap(SessionFactory.class)
+                .withOptions()
+                .statementInspector(this)
+                .openSession();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        count++;
+        countsByShape.merge(shapeOf(sql), 1, Integer::sum);
+        return sql;
+    }
+
+    void lazyLoaded(String role) {
+        lazyLoadCounts.merge(role, 1, Integer::sum);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * 정규화된 SQL 모양별 실행 횟수 (먼저 실행된 순)
+     */
+    public Map<String, Integer> getCountsByShape() {
+        return Collections.unmodifiableMap(countsByShape);
+    }
+
+    /**
+     * 연관관계(컬렉션 role 또는 프록시 엔티티 이름)별 지연로딩 초기화 횟수
+     */
+    public Map<String, Integer> getLazyLoadCounts() {
+        return Collections.unmodifiableMap(lazyLoadCounts);
+    }
+
+    /**
+     * 같은 연관관계를 2번 이상 지연로딩한 경우 N + 1 로 의심한다.
+     */
+    public Map<String, Integer> getNPlusOneSuspects() {
+        return lazyLoadCounts.entrySet().stream()
+                .filter(entry -> entry.getValue() > 1)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public void assertMaxQueries(int max) {
+        if (count > max) {
+            throw new AssertionError("expected at most " + max + " queries but was " + count + report());
+        }
+    }
+
+    public void assertQueryCount(int expected) {
+        if (count != expected) {
+            throw new AssertionError("expected " + expected + " queries but was " + count + report());
+        }
+    }
+
+    public void assertNoNPlusOne() {
+        Map<String, Integer> suspects = getNPlusOneSuspects();
+        if (!suspects.isEmpty()) {
+            throw new AssertionError("N + 1 suspected, repeated lazy loading: " + suspects + report());
+        }
+    }
+
+    public void clear() {
+        count = 0;
+        countsByShape.clear();
+        lazyLoadCounts.clear();
+    }
+
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        countsByShape.forEach((shape, shapeCount) -> report.append(System.lineSeparator()).append(shapeCount).append("x ").append(shape));
+        lazyLoadCounts.forEach((role, loadCount) -> report.append(System.lineSeparator()).append(loadCount).append("x lazy ").append(role));
+        return report.toString();
+    }
+
+    static String shapeOf(String sql) {
+        String shape = COMMENT.matcher(sql).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)"); // batch fetch 의 in (?, ?, ...) 크기가 달라도 같은 모양
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,62 @@
+package support.readonly;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.jpa.HibernateHints;
+
+/**
+ * 조회 전용(리포팅) 경로에서 사용하는 읽기 전용 쿼리 / 세션 설정
+ * 읽기 전용으로 로딩한 엔티티는
+ * 1. 더티체킹용 스냅샷(loadedState)을 보관하지 않아 엔티티당 메모리가 줄고
+ * 2. flush 시 더티체킹 대상에서 빠진다. (값을 바꿔도 update 가 나가지 않는다)
+ * FlushMode.MANUAL 은 쿼리 실행 전, 커밋 시 자동 flush 를 하지 않는다.
+ *
+ * <pre>
+ * List&lt;Person&gt; personList = ReadOnlyQueries.readOnly(em.createQuery("select p from Person p", Person.class))
+ *         .getResultList();
+ * </pre>
+ */
+public final class ReadOnlyQueries {
+    private ReadOnlyQueries() {
+    }
+
+    /**
+     * 이 쿼리로 로딩한 엔티티만 읽기 전용, 쿼리 실행 전 자동 flush 도 하지 않는다.
+     */
+    public static <T> TypedQuery<T> readOnly(TypedQuery<T> query) {
+        return query
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+    }
+
+    public static <T> JPAQuery<T> readOnly(JPAQuery<T> query) {
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        query.setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL);
+        return query;
+    }
+
+    /**
+     * 읽기 전용 세션을 연다.
+     * 이 세션에서 로딩하는 모든 엔티티가 읽기 전용이고 flush 는 직접 호출할 때만 일어난다.
+     */
+    public static EntityManager createEntityManager(EntityManagerFactory emf) {
+        Session session = emf.unwrap(SessionFactory.class).openSession();
+        readOnly(session);
+        return session;
+    }
+
+    /**
+     * 이미 열린 엔티티매니저를 읽기 전용으로 바꾼다.
+     * 이미 로딩되어 있는 엔티티에는 적용되지 않고 이후에 로딩하는 엔티티부터 적용된다.
+     */
+    public static void readOnly(EntityManager em) {
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+    }
+}
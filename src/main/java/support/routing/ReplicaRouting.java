@@ -0,0 +1,70 @@
+package support.routing;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import support.readonly.ReadOnlyQueries;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 읽기 전용 트랜잭션을 replica 로 보낸다. (ReplicaRoutingConnectionProvider)
+ * readOnly 안에서 얻은 커넥션은 replica 에서, 그 밖의 커넥션은 primary 에서 꺼낸다.
+ * replica 가 이 스레드의 마지막 쓰기를 아직 반영하지 않았거나 너무 뒤처져 있으면 primary 에서 읽는다. (read-your-writes)
+ * 하이버네이트는 커넥션을 처음 사용할 때 얻으므로 엔티티매니저는 readOnly 안에서 만들고 닫는다.
+ * 스레드 로컬이므로 다른 스레드에서 실행하는 작업은 그 안에서 다시 지정한다.
+ *
+ * <pre>
+ * List&lt;Person&gt; personList = ReplicaRouting.readOnly(emf, em -&gt; em.createQuery("select p from Person p", Person.class).getResultList());
+ * </pre>
+ */
+public final class ReplicaRouting {
+    private static final ThreadLocal<Boolean> readOnly = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    /**
+     * 읽기 전용 엔티티매니저(ReadOnlyQueries)를 만들어 트랜잭션 안에서 work 를 실행한다.
+     * flush 하지 않으므로 엔티티를 바꿔도 저장되지 않는다. 결과 엔티티는 준영속 상태이다.
+     */
+    public static <T> T readOnly(EntityManagerFactory emf, Function<EntityManager, T> work) {
+        return readOnly(() -> {
+            EntityManager em = ReadOnlyQueries.createEntityManager(emf);
+            EntityTransaction tx = em.getTransaction();
+            try {
+                tx.begin();
+                T result = work.apply(em);
+                tx.commit();
+                return result;
+            } finally {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                em.close();
+            }
+        });
+    }
+
+    /**
+     * work 에서 얻는 커넥션을 replica 로 보낸다. 엔티티매니저를 직접 만드는 경우 (쓰기는 막지 않는다)
+     */
+    public static <T> T readOnly(Supplier<T> work) {
+        Boolean previous = readOnly.get();
+        readOnly.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                readOnly.remove();
+            } else {
+                readOnly.set(previous);
+            }
+        }
+    }
+
+    static boolean isReadOnly() {
+        return readOnly.get() != null;
+    }
+}
@@ -0,0 +1,188 @@
+package support.routing;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * primary, replica 커넥션 풀(HikariCP) 두개, ReplicaRouting.readOnly 안에서 얻는 커넥션은 replica 에서 꺼낸다.
+ * replica 풀은 primary 와 같은 hibernate.hikari.* 설정에 URL 만 support.routing.replica.url 로 바꿔 만든다.
+ * 복제 위치: 쓰기 트랜잭션(readOnly 밖에서 얻은 커넥션)이 끝나 커넥션을 반납할 때마다 primary 위치가 1 증가한다. (실제 DB 의 LSN 대신)
+ * 복제 도구(또는 복제 지연 모니터)는 primary 위치를 읽고 그때까지의 변경을 replica 에 반영한 뒤 replicated 로 알린다.
+ * 다음 경우에는 readOnly 안에서도 primary 에서 읽는다.
+ * 1. read-your-writes: replica 위치가 이 스레드의 마지막 쓰기 위치보다 작다.
+ * 2. 복제 지연: replica 가 primary 보다 뒤처지기 시작한 뒤(복제되지 않은 첫 쓰기부터) support.routing.replica.max_lag (ms) 이 지났다.
+ *    replicated 가 호출되어도 primary 위치를 따라잡기 전까지는 뒤처지기 시작한 시각이 그대로이다. (복제가 멈춰 같은 위치만 알리는 경우)
+ * 커넥션 수는 primary, replica 풀 각각 maximumPoolSize 까지이다.
+ * hibernate.connection.provider_class 에 설정한다.
+ */
+public class ReplicaRoutingConnectionProvider implements ConnectionProvider, Configurable, Stoppable {
+    public static final String REPLICA_URL = "support.routing.replica.url";
+    public static final String MAX_LAG = "support.routing.replica.max_lag";
+    private static final int DEFAULT_MAX_LAG_MILLIS = 1000;
+    private static final long CAUGHT_UP = Long.MIN_VALUE;
+
+    private final HikariCPConnectionProvider primary = new HikariCPConnectionProvider();
+    private final HikariCPConnectionProvider replica = new HikariCPConnectionProvider();
+    private final Set<Connection> writeConnections = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Long> lastWritePosition = ThreadLocal.withInitial(() -> 0L);
+    private final AtomicLong primaryPosition = new AtomicLong();
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+    private final Object positionLock = new Object(); // primary 위치와 뒤처지기 시작한 시각을 함께 바꾼다.
+    private volatile long replicaPosition;
+    private volatile long behindSinceNanos = CAUGHT_UP;
+    private long maxLagNanos;
+
+    public static ReplicaRoutingConnectionProvider of(EntityManagerFactory emf) {
+        ConnectionProvider connectionProvider = emf.unwrap(SessionFactoryImplementor.class).getServiceRegistry().getService(ConnectionProvider.class);
+        if (!(connectionProvider instanceof ReplicaRoutingConnectionProvider routing)) {
+            throw new IllegalStateException("replica routing is not enabled");
+        }
+        return routing;
+    }
+
+    @Override
+    public void configure(Map<String, Object> settings) {
+        Object replicaUrl = settings.get(REPLICA_URL);
+        if (replicaUrl == null) {
+            throw new IllegalArgumentException(REPLICA_URL + " is required");
+        }
+        maxLagNanos = TimeUnit.MILLISECONDS.toNanos(ConfigurationHelper.getLong(MAX_LAG, settings, DEFAULT_MAX_LAG_MILLIS));
+        primary.configure(settings);
+        Map<String, Object> replicaSettings = new HashMap<>(settings);
+        replicaSettings.put(AvailableSettings.URL, replicaUrl);
+        replica.configure(replicaSettings);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReplicaRouting.isReadOnly()) {
+            Connection connection = primary.getConnection();
+            writeConnections.add(connection);
+            return connection;
+        }
+        if (isReplicaReadable(lastWritePosition.get())) {
+            replicaReads.increment();
+            return replica.getConnection();
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    /**
+     * 쓰기 커넥션이면 커밋(롤백) 후이므로 primary 위치를 올리고 이 스레드의 마지막 쓰기 위치로 기억한다.
+     * 롤백한 트랜잭션, 조회만 한 트랜잭션도 구분하지 않고 올린다. (replica 를 덜 사용할 뿐 오래된 값을 읽지는 않는다)
+     */
+    @Override
+    public void closeConnection(Connection connection) throws SQLException {
+        try {
+            connection.close(); // 어느 풀이든 close 하면 그 풀에 반납된다.
+        } finally {
+            if (writeConnections.remove(connection)) {
+                synchronized (positionLock) {
+                    if (behindSinceNanos == CAUGHT_UP) {
+                        behindSinceNanos = System.nanoTime();
+                    }
+                    lastWritePosition.set(primaryPosition.incrementAndGet());
+                }
+            }
+        }
+    }
+
+    /**
+     * replica 가 position 까지의 변경을 반영했다. (복제 도구가 호출)
+     * primary 위치까지 따라잡았을 때만 뒤처지기 시작한 시각을 지운다.
+     */
+    public void replicated(long position) {
+        synchronized (positionLock) {
+            if (position > replicaPosition) {
+                replicaPosition = position;
+            }
+            if (replicaPosition >= primaryPosition.get()) {
+                behindSinceNanos = CAUGHT_UP;
+            }
+        }
+    }
+
+    public long getPrimaryPosition() {
+        return primaryPosition.get();
+    }
+
+    public long getReplicaPosition() {
+        return replicaPosition;
+    }
+
+    /**
+     * 이 스레드가 마지막으로 쓴 위치, 다른 스레드(요청)로 read-your-writes 를 이어가려면 함께 넘긴다.
+     */
+    public long getLastWritePosition() {
+        return lastWritePosition.get();
+    }
+
+    public void setLastWritePosition(long position) {
+        lastWritePosition.set(Math.max(lastWritePosition.get(), position));
+    }
+
+    /**
+     * readOnly 중 replica 에서 읽은 커넥션 수
+     */
+    public long getReplicaReadCount() {
+        return replicaReads.sum();
+    }
+
+    /**
+     * readOnly 중 replica 가 뒤처져 primary 에서 읽은 커넥션 수
+     */
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    private boolean isReplicaReadable(long requiredPosition) {
+        long replicated = replicaPosition;
+        if (replicated < requiredPosition) {
+            return false;
+        }
+        long behindSince = behindSinceNanos;
+        return replicated >= primaryPosition.get() || behindSince == CAUGHT_UP || System.nanoTime() - behindSince <= maxLagNanos;
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    /**
+     * HikariDataSource 는 primary 풀 (PersistenceMetrics, UnitOfWorkExecutor.poolSize)
+     */
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this) || primary.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        return unwrapType.isInstance(this) ? unwrapType.cast(this) : primary.unwrap(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        primary.stop();
+        replica.stop();
+    }
+}
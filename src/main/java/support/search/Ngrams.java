@@ -0,0 +1,44 @@
+package support.search;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 부분 검색용 n-gram 분해 (대소문자 구분 없음), gram 길이는 PersonNgram.Field 마다 다르다.
+ * name 은 연속된 2글자(bigram)를 색인한다. 한글 이름은 2~3글자가 많아 3-gram 으로는 검색어가 짧을 때 찾을 수 없다.
+ * 글자 1개는 색인하지 않는다. 행마다 색인 행이 글자 수만큼 늘어나는데 1글자 검색어는 대부분 흔해서 색인보다 like 조회가 빠르다. (PersonSearchBenchmark)
+ * email 은 @ 앞부분(local part)만 3글자(trigram)로 색인한다.
+ * 1. 도메인은 몇 개뿐이라 도메인 gram 은 거의 모든 행에 있어 검색에 쓸모가 없고 색인 행만 늘린다.
+ * 2. 영문, 숫자 bigram 은 1000 여개뿐이라 gram 마다 색인 행이 많다. 한글 bigram 만큼 드물려면 3글자가 필요하다.
+ */
+public final class Ngrams {
+
+    private Ngrams() {
+    }
+
+    public static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * "User_1@Naver.com" -> "user_1", @ 가 없으면 이메일이 아니므로 비어있다.
+     */
+    public static String localPart(String email) {
+        String normalized = normalize(email);
+        int at = normalized.lastIndexOf('@');
+        return at < 0 ? "" : normalized.substring(0, at);
+    }
+
+    /**
+     * ("짱구야", 2) -> [짱구, 구야], length 글자보다 짧으면 비어있다.
+     */
+    public static Set<String> grams(String value, int length) {
+        String normalized = normalize(value);
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + length <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + length));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,238 @@
+package support.search;
+
+import domain.Person;
+import domain.PersonNgram;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Person 의 name, email n-gram 색인(person_ngram) 갱신
+ * Person insert, update(name, email 변경), delete 이벤트는 세션마다 모아두고 flush 가 끝날 때 같은 트랜잭션, 같은 커넥션에서 JDBC batch 한번으로 쓴다.
+ * 이벤트마다 쓰면 Person insert 한 건마다 statement 를 실행해 hibernate.jdbc.batch_size 로 묶은 효과가 없어진다.
+ * flush 밖에서 발생한 이벤트(IDENTITY insert 등)는 커밋 전에 쓰고, 롤백하면 버린다.
+ * 이벤트가 발생하지 않는 경로는 직접 호출해야 한다.
+ * 1. StatelessSession insert (RosterImporter) -> index
+ * 2. 벌크 update (PersonBulkUpdater) -> reindex
+ * 3. 벌크 delete 는 색인이 남아도 검색 결과에 나오지 않지만 공간을 차지하므로 함께 지운다. (SchoolPurgeService)
+ * 색인 행은 Person 마다 name, email local part 글자 수만큼 생기므로 insert 비용도 그만큼 늘어난다. (대량 등록 시 RosterImporterTests 참고)
+ * SearchIndexIntegrator 가 등록한다.
+ */
+public class PersonSearchIndexer implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+    private static final String INSERT = "insert into person_ngram (field, gram, person_id) values (?, ?, ?)";
+    private static final String DELETE = "delete from person_ngram where person_id = ?";
+    private static final int REINDEX_CHUNK_SIZE = 500;
+
+    private final Map<SessionImplementor, PendingIndex> pendingIndexes = new ConcurrentHashMap<>();
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Person person) {
+            pendingIndexOf(event.getSession()).index(person);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Person person && isSearchFieldDirty(event)) {
+            pendingIndexOf(event.getSession()).reindex(person);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Person) {
+            pendingIndexOf(event.getSession()).remove((Long) event.getId());
+        }
+    }
+
+    /**
+     * 기본 FlushEventListener 뒤에 등록되므로 이번 flush 의 insert, update, delete 가 모두 실행된 뒤이다.
+     * flush 마다 쓰므로 같은 트랜잭션의 다음 검색에서도 보이고, flush/clear 로 나눠 저장하면 모아두는 양도 그만큼으로 제한된다.
+     */
+    @Override
+    public void onFlush(FlushEvent event) {
+        writePending(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        writePending(event.getSession());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /**
+     * 새로 저장한 Person 을 색인한다.
+     */
+    public static void index(SharedSessionContract session, Collection<Person> persons) {
+        if (!persons.isEmpty()) {
+            session.doWork(connection -> insert(connection, persons));
+        }
+    }
+
+    public static void remove(SharedSessionContract session, Collection<Long> personIds) {
+        if (!personIds.isEmpty()) {
+            session.doWork(connection -> delete(connection, personIds));
+        }
+    }
+
+    /**
+     * 벌크 update 로 name, email 이 바뀐 Person 을 DB 에서 다시 읽어 색인한다.
+     */
+    public static void reindex(EntityManager em, Collection<Long> personIds) {
+        List<Long> ids = new ArrayList<>(personIds);
+        for (int from = 0; from < ids.size(); from += REINDEX_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + REINDEX_CHUNK_SIZE, ids.size()));
+            List<Object[]> rows = em.createQuery("select p.id, p.name, p.email from Person p where p.id in :ids", Object[].class)
+                    .setParameter("ids", chunk)
+                    .getResultList();
+            em.unwrap(Session.class).doWork(connection -> {
+                delete(connection, chunk);
+                try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                    for (Object[] row : rows) {
+                        addGrams(statement, (Long) row[0], (String) row[1], (String) row[2]);
+                    }
+                    statement.executeBatch();
+                }
+            });
+        }
+    }
+
+    /**
+     * 세션마다 처음 이벤트가 발생할 때 한번만 만들고 커밋 전, 트랜잭션 종료 후 처리를 등록한다.
+     * flush 로 쓴 뒤에도 트랜잭션이 끝날 때까지 남겨두므로 같은 트랜잭션의 다음 이벤트가 처리를 다시 등록하지 않는다.
+     */
+    private PendingIndex pendingIndexOf(EventSource session) {
+        return pendingIndexes.computeIfAbsent(session, s -> {
+            ActionQueue actionQueue = session.getActionQueue();
+            actionQueue.registerProcess((BeforeTransactionCompletionProcess) this::writePending);
+            actionQueue.registerProcess((AfterTransactionCompletionProcess) (success, completed) -> pendingIndexes.remove(session));
+            return new PendingIndex();
+        });
+    }
+
+    private void writePending(SessionImplementor session) {
+        PendingIndex pendingIndex = pendingIndexes.get(session);
+        if (pendingIndex != null) {
+            pendingIndex.flush(session);
+        }
+    }
+
+    /**
+     * 한 세션에서 아직 쓰지 않은 색인 변경, 지울 person_id 를 먼저 지우고 다시 색인할 Person 을 쓴다.
+     */
+    private static class PendingIndex {
+        private final Map<Long, Person> persons = new LinkedHashMap<>();
+        private final Set<Long> removedIds = new LinkedHashSet<>();
+
+        void index(Person person) {
+            persons.put(person.getId(), person);
+        }
+
+        void reindex(Person person) {
+            removedIds.add(person.getId());
+            persons.put(person.getId(), person);
+        }
+
+        void remove(Long personId) {
+            persons.remove(personId);
+            removedIds.add(personId);
+        }
+
+        void flush(SessionImplementor session) {
+            if (persons.isEmpty() && removedIds.isEmpty()) {
+                return;
+            }
+            session.doWork(connection -> {
+                if (!removedIds.isEmpty()) {
+                    delete(connection, removedIds);
+                }
+                if (!persons.isEmpty()) {
+                    insert(connection, persons.values());
+                }
+            });
+            persons.clear();
+            removedIds.clear();
+        }
+    }
+
+    private static boolean isSearchFieldDirty(PostUpdateEvent event) {
+        int[] dirtyProperties = event.getDirtyProperties();
+        if (dirtyProperties == null) {
+            return true; // 변경된 속성을 알 수 없으면 다시 색인
+        }
+        String[] propertyNames = event.getPersister().getPropertyNames();
+        for (int property : dirtyProperties) {
+            if (propertyNames[property].equals("name") || propertyNames[property].equals("email")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void insert(Connection connection, Collection<Person> persons) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Person person : persons) {
+                addGrams(statement, person.getId(), person.getName(), person.getEmail());
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void addGrams(PreparedStatement statement, Long personId, String name, String email) throws SQLException {
+        addGrams(statement, personId, PersonNgram.Field.NAME, name);
+        addGrams(statement, personId, PersonNgram.Field.EMAIL, Ngrams.localPart(email));
+    }
+
+    private static void addGrams(PreparedStatement statement, Long personId, PersonNgram.Field field, String value) throws SQLException {
+        for (String gram : Ngrams.grams(value, field.getGramLength())) {
+            statement.setString(1, field.name());
+            statement.setString(2, gram);
+            statement.setLong(3, personId);
+            statement.addBatch();
+        }
+    }
+
+    private static void delete(Connection connection, Collection<Long> personIds) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(DELETE)) {
+            for (Long personId : personIds) {
+                statement.setLong(1, personId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+}
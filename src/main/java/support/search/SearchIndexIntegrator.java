@@ -0,0 +1,29 @@
+package support.search;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * PersonSearchIndexer 를 등록한다. META-INF/services 로 자동 등록된다.
+ */
+public class SearchIndexIntegrator implements Integrator {
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        PersonSearchIndexer indexer = new PersonSearchIndexer();
+        registry.appendListeners(EventType.POST_INSERT, indexer);
+        registry.appendListeners(EventType.POST_UPDATE, indexer);
+        registry.appendListeners(EventType.POST_DELETE, indexer);
+        registry.appendListeners(EventType.FLUSH, indexer); // 기본 리스너가 flush 한 뒤 모아둔 색인을 쓴다.
+        registry.appendListeners(EventType.AUTO_FLUSH, indexer);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
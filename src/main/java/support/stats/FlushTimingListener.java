@@ -0,0 +1,51 @@
+package support.stats;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * flush 소요시간 측정
+ * 기본 flush 리스너 앞(start)과 뒤(end)에 하나씩 등록되어 그 사이 시간을 QueryTimings 에 기록한다.
+ * auto flush(JPQL 실행 전 flush)도 더티체킹을 하므로 같이 기록한다.
+ */
+abstract class FlushTimingListener implements FlushEventListener, AutoFlushEventListener {
+    private static final ThreadLocal<long[]> START = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public void onFlush(FlushEvent event) throws HibernateException {
+        timing(event);
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) throws HibernateException {
+        timing(event);
+    }
+
+    private void timing(FlushEvent event) {
+        StatementInspector inspector = event.getSession().getFactory().getSessionFactoryOptions().getStatementInspector();
+        if (inspector instanceof QueryTimings timings) {
+            onTiming(START.get(), timings);
+        }
+    }
+
+    abstract void onTiming(long[] start, QueryTimings timings);
+
+    // 같은 이벤트에 같은 클래스의 리스너를 두 번 등록할 수 없으므로 클래스를 나눈다.
+    static class Start extends FlushTimingListener {
+        @Override
+        void onTiming(long[] start, QueryTimings timings) {
+            start[0] = System.nanoTime();
+        }
+    }
+
+    static class End extends FlushTimingListener {
+        @Override
+        void onTiming(long[] start, QueryTimings timings) {
+            timings.flushExecuted((System.nanoTime() - start[0]) / 1_000);
+        }
+    }
+}
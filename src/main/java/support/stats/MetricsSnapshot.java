@@ -0,0 +1,51 @@
+package support.stats;
+
+import java.util.Map;
+
+/**
+ * 특정 시점의 영속성 계층 통계
+ * 쿼리 실행시간, flush 소요시간은 µs 단위이다. (QueryTimings 가 직접 측정)
+ * QueryTimings 를 설정하지 않으면 쿼리는 기본 통계의 HQL 별 평균, 최대(ms, 1ms 미만은 0)만 채워진다.
+ *
+ * @param queries      SQL 별 실행시간 분포, hibernate.statistics.query_max_size 개까지
+ * @param flush        flush, auto flush 소요시간 분포 (QueryTimings 를 설정하지 않으면 count 만 채워진다)
+ * @param entities     엔티티 이름별 load, fetch(지연로딩 등 추가 조회), insert, update, delete 횟수
+ * @param cacheRegions 2차 캐시(쿼리 캐시 포함) region 별 적중 통계
+ * @param queryPlanCache 쿼리 계획 캐시(HQL 파싱, SQL 변환 결과) 적중 통계, 실패할 때마다 새로 컴파일해서 넣으므로 puts 는 misses 와 같다.
+ * @param pool         커넥션 풀 상태, HikariCP 를 사용하지 않으면 null
+ */
+public record MetricsSnapshot(
+        long sessionOpenCount,
+        long prepareStatementCount,
+        long queryExecutionCount,
+        Map<String, Latency> queries,
+        Latency flush,
+        Map<String, EntityCounts> entities,
+        Map<String, CacheCounts> cacheRegions,
+        CacheCounts secondLevelCache,
+        CacheCounts queryCache,
+        CacheCounts queryPlanCache,
+        Pool pool) {
+
+    public record Latency(long count, double mean, long p50, long p95, long p99, long max) {
+    }
+
+    public record EntityCounts(long loads, long fetches, long inserts, long updates, long deletes) {
+    }
+
+    /**
+     * @param pending 커넥션을 기다리는 스레드 수
+     * @param acquire 커넥션 획득 대기시간(µs) 분포
+     * @param usage   커넥션 사용(대여)시간(ms) 분포
+     */
+    public record Pool(String name, int active, int idle, int total, int max, int pending,
+                       Latency acquire, Latency usage, long timeouts) {
+    }
+
+    public record CacheCounts(long hits, long misses, long puts) {
+        public double hitRatio() {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package support.stats;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.Histogram;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.Wrapped;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * SessionFactory 통계(hibernate.generate_statistics)를 스냅샷으로 묶어 제공하고 JMX MBean 으로 등록한다.
+ * show_sql 로 SQL 을 출력하는 것 자체가 부하가 크므로 운영에서는 SQL 로그를 끄고 이 통계를 본다.
+ * QueryTimings 를 설정했으면 SQL 별 실행시간, flush 소요시간 분포를 함께 제공한다.
+ * 커넥션 풀이 HikariCP 이면 풀 상태와 PoolMetricsTrackerFactory 가 기록한 커넥션 획득 대기시간도 포함한다.
+ *
+ * <pre>
+ * try (PersistenceMetrics metrics = PersistenceMetrics.register(emf, "hello-h2")) {
+ *     MetricsSnapshot snapshot = metrics.snapshot();
+ * }
+ * </pre>
+ */
+public class PersistenceMetrics implements PersistenceMetricsMXBean, AutoCloseable {
+    public static final String JMX_DOMAIN = "support.stats";
+
+    private final SessionFactoryImplementor sessionFactory;
+    private final Statistics statistics;
+    private final QueryTimings timings; // 설정하지 않았으면 null
+    private final ObjectName objectName;
+
+    private PersistenceMetrics(SessionFactoryImplementor sessionFactory, ObjectName objectName) {
+        this.sessionFactory = sessionFactory;
+        this.statistics = sessionFactory.getStatistics();
+        StatementInspector inspector = sessionFactory.getSessionFactoryOptions().getStatementInspector();
+        this.timings = inspector instanceof QueryTimings queryTimings ? queryTimings : null;
+        this.objectName = objectName;
+    }
+
+    /**
+     * 플랫폼 MBeanServer 에 support.stats:type=PersistenceMetrics,name={name} 으로 등록한다.
+     */
+    public static PersistenceMetrics register(EntityManagerFactory emf, String name) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        if (!sessionFactory.getStatistics().isStatisticsEnabled()) {
+            throw new IllegalStateException("hibernate.generate_statistics is disabled");
+        }
+        try {
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=PersistenceMetrics,name=" + ObjectName.quote(name));
+            PersistenceMetrics metrics = new PersistenceMetrics(sessionFactory, objectName);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+            return metrics;
+        } catch (JMException e) {
+            throw new IllegalStateException("failed to register metrics MBean: " + name, e);
+        }
+    }
+
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    public MetricsSnapshot snapshot() {
+        Map<String, MetricsSnapshot.Latency> queries = new TreeMap<>();
+        if (timings != null) {
+            timings.forEachQueryHistogram((sql, histogram) -> queries.put(sql, latencyOf(histogram)));
+        } else {
+            // 기본 통계는 HQL 별 평균, 최대(ms)만 있으므로 분포 없이 채운다.
+            for (String hql : statistics.getQueries()) {
+                QueryStatistics query = statistics.getQueryStatistics(hql);
+                queries.put(hql, new MetricsSnapshot.Latency(query.getExecutionCount(), query.getExecutionAvgTimeAsDouble(),
+                        0, 0, 0, query.getExecutionMaxTime()));
+            }
+        }
+
+        MetricsSnapshot.Latency flush = timings != null
+                ? latencyOf(timings.getFlushHistogram())
+                : new MetricsSnapshot.Latency(statistics.getFlushCount(), 0, 0, 0, 0, 0);
+
+        Map<String, MetricsSnapshot.EntityCounts> entities = new TreeMap<>();
+        for (String entityName : statistics.getEntityNames()) {
+            EntityStatistics entity = statistics.getEntityStatistics(entityName);
+            entities.put(entityName, new MetricsSnapshot.EntityCounts(entity.getLoadCount(), entity.getFetchCount(),
+                    entity.getInsertCount(), entity.getUpdateCount(), entity.getDeleteCount()));
+        }
+
+        Map<String, MetricsSnapshot.CacheCounts> cacheRegions = new TreeMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region); // 엔티티, 컬렉션, 쿼리 캐시 region 모두 포함
+            if (regionStatistics != null) {
+                cacheRegions.put(region, new MetricsSnapshot.CacheCounts(regionStatistics.getHitCount(),
+                        regionStatistics.getMissCount(), regionStatistics.getPutCount()));
+            }
+        }
+
+        return new MetricsSnapshot(
+                statistics.getSessionOpenCount(),
+                statistics.getPrepareStatementCount(),
+                statistics.getQueryExecutionCount(),
+                queries,
+                flush,
+                entities,
+                cacheRegions,
+                new MetricsSnapshot.CacheCounts(statistics.getSecondLevelCacheHitCount(),
+                        statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()),
+                new MetricsSnapshot.CacheCounts(statistics.getQueryCacheHitCount(),
+                        statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()),
+                new MetricsSnapshot.CacheCounts(statistics.getQueryPlanCacheHitCount(),
+                        statistics.getQueryPlanCacheMissCount(), statistics.getQueryPlanCacheMissCount()),
+                poolSnapshot());
+    }
+
+    private MetricsSnapshot.Pool poolSnapshot() {
+        HikariDataSource dataSource = hikariDataSource();
+        if (dataSource == null || dataSource.getHikariPoolMXBean() == null) {
+            return null;
+        }
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        PoolMetricsTrackerFactory.Tracker tracker = PoolMetricsTrackerFactory.tracker(dataSource.getPoolName());
+        MetricsSnapshot.Latency empty = new MetricsSnapshot.Latency(0, 0, 0, 0, 0, 0);
+        return new MetricsSnapshot.Pool(
+                dataSource.getPoolName(),
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                dataSource.getMaximumPoolSize(),
+                pool.getThreadsAwaitingConnection(),
+                tracker == null ? empty : latencyOf(tracker.getAcquireHistogram()),
+                tracker == null ? empty : latencyOf(tracker.getUsageHistogram()),
+                tracker == null ? 0 : tracker.getTimeoutCount());
+    }
+
+    private HikariDataSource hikariDataSource() {
+        Wrapped connectionProvider = sessionFactory.getSessionFactoryOptions().isMultiTenancyEnabled() // 테넌트가 함께 쓰는 풀
+                ? sessionFactory.getServiceRegistry().getService(MultiTenantConnectionProvider.class)
+                : sessionFactory.getServiceRegistry().getService(ConnectionProvider.class);
+        return connectionProvider != null && connectionProvider.isUnwrappableAs(HikariDataSource.class)
+                ? connectionProvider.unwrap(HikariDataSource.class)
+                : null;
+    }
+
+    private static MetricsSnapshot.Latency latencyOf(Histogram histogram) {
+        return new MetricsSnapshot.Latency(histogram.getTotalCount(), histogram.getMean(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(95),
+                histogram.getValueAtPercentile(99), histogram.getMaxValue());
+    }
+
+    @Override
+    public long getSessionOpenCount() {
+        return statistics.getSessionOpenCount();
+    }
+
+    @Override
+    public long getPrepareStatementCount() {
+        return statistics.getPrepareStatementCount();
+    }
+
+    @Override
+    public long getQueryExecutionCount() {
+        return statistics.getQueryExecutionCount();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return statistics.getFlushCount();
+    }
+
+    @Override
+    public long getFlushP99Micros() {
+        return timings != null ? timings.getFlushHistogram().getValueAtPercentile(99) : 0;
+    }
+
+    @Override
+    public double getSecondLevelCacheHitRatio() {
+        return snapshot().secondLevelCache().hitRatio();
+    }
+
+    @Override
+    public double getQueryCacheHitRatio() {
+        return snapshot().queryCache().hitRatio();
+    }
+
+    @Override
+    public double getQueryPlanCacheHitRatio() {
+        return snapshot().queryPlanCache().hitRatio();
+    }
+
+    @Override
+    public long getQueryPlanCacheMissCount() {
+        return statistics.getQueryPlanCacheMissCount();
+    }
+
+    @Override
+    public Map<String, Long> getEntityLoadCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        snapshot().entities().forEach((entityName, entity) -> counts.put(entityName, entity.loads()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getEntityFetchCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        snapshot().entities().forEach((entityName, entity) -> counts.put(entityName, entity.fetches()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, String> getQueryLatencies() {
+        Map<String, String> latencies = new LinkedHashMap<>();
+        String unit = timings != null ? "µs" : "ms";
+        snapshot().queries().forEach((query, latency) -> latencies.put(query, String.format(
+                "count=%d, p50=%d%s, p99=%d%s, max=%d%s", latency.count(), latency.p50(), unit, latency.p99(), unit, latency.max(), unit)));
+        return latencies;
+    }
+
+    @Override
+    public int getPoolActiveConnections() {
+        MetricsSnapshot.Pool pool = poolSnapshot();
+        return pool == null ? 0 : pool.active();
+    }
+
+    @Override
+    public int getPoolPendingThreads() {
+        MetricsSnapshot.Pool pool = poolSnapshot();
+        return pool == null ? 0 : pool.pending();
+    }
+
+    @Override
+    public long getPoolAcquireP99Micros() {
+        MetricsSnapshot.Pool pool = poolSnapshot();
+        return pool == null ? 0 : pool.acquire().p99();
+    }
+
+    @Override
+    public long getPoolTimeoutCount() {
+        MetricsSnapshot.Pool pool = poolSnapshot();
+        return pool == null ? 0 : pool.timeouts();
+    }
+
+    @Override
+    public void reset() {
+        statistics.clear();
+        if (timings != null) {
+            timings.clear();
+        }
+        HikariDataSource dataSource = hikariDataSource();
+        PoolMetricsTrackerFactory.Tracker tracker = dataSource == null ? null : PoolMetricsTrackerFactory.tracker(dataSource.getPoolName());
+        if (tracker != null) {
+            tracker.reset();
+        }
+    }
+
+    /**
+     * MBean 등록을 해제한다. 통계 자체는 SessionFactory 가 닫힐 때까지 유지된다.
+     */
+    @Override
+    public void close() {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException("failed to unregister metrics MBean: " + objectName, e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package support.stats;
+
+import java.util.Map;
+
+/**
+ * JMX 로 노출되는 영속성 계층 통계 (jconsole 등에서 support.stats 도메인으로 조회)
+ */
+public interface PersistenceMetricsMXBean {
+    long getSessionOpenCount();
+
+    long getPrepareStatementCount();
+
+    long getQueryExecutionCount();
+
+    long getFlushCount();
+
+    long getFlushP99Micros();
+
+    double getSecondLevelCacheHitRatio();
+
+    double getQueryCacheHitRatio();
+
+    double getQueryPlanCacheHitRatio();
+
+    /**
+     * 계속 증가하면 HQL 에 값을 이어붙이는 등 매번 다른 HQL 이 만들어지고 있다.
+     */
+    long getQueryPlanCacheMissCount();
+
+    Map<String, Long> getEntityLoadCounts();
+
+    Map<String, Long> getEntityFetchCounts();
+
+    /**
+     * SQL 별 "count=.., p50=..µs, p99=..µs, max=..µs" (QueryTimings 를 설정하지 않으면 HQL 별 ms)
+     */
+    Map<String, String> getQueryLatencies();
+
+    int getPoolActiveConnections();
+
+    /**
+     * 커넥션을 기다리는 스레드 수, 0 보다 큰 상태가 지속되면 풀 크기가 부족하다.
+     */
+    int getPoolPendingThreads();
+
+    long getPoolAcquireP99Micros();
+
+    long getPoolTimeoutCount();
+
+    void reset();
+}
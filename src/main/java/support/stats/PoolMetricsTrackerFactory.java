@@ -0,0 +1,90 @@
+package support.stats;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HikariCP 커넥션 풀 지표 수집
+ * 풀마다 커넥션 획득 대기시간(µs), 커넥션 사용시간(ms) 히스토그램과 획득 timeout 횟수를 기록한다.
+ * hibernate.hikari.metricsTrackerFactory 에 설정하면 HikariCP 가 풀을 만들 때 생성하고
+ * PersistenceMetrics 가 풀 이름으로 찾아 스냅샷에 포함한다.
+ */
+public class PoolMetricsTrackerFactory implements MetricsTrackerFactory {
+    private static final Map<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        Tracker tracker = new Tracker(poolName);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    /**
+     * @return 풀이 없거나 이 팩토리로 만들어지지 않았으면 null
+     */
+    static Tracker tracker(String poolName) {
+        return trackers.get(poolName);
+    }
+
+    static class Tracker implements IMetricsTracker {
+        private static final int SIGNIFICANT_DIGITS = 2;
+
+        private final String poolName;
+        private final Histogram acquireHistogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final Histogram usageHistogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+        private final LongAdder timeouts = new LongAdder();
+
+        Tracker(String poolName) {
+            this.poolName = poolName;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquireHistogram.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedAcquiredNanos), 0));
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageHistogram.recordValue(Math.max(elapsedBorrowedMillis, 0));
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        /**
+         * 풀이 닫히면 호출된다.
+         */
+        @Override
+        public void close() {
+            trackers.remove(poolName, this);
+        }
+
+        Histogram getAcquireHistogram() {
+            return acquireHistogram.copy();
+        }
+
+        Histogram getUsageHistogram() {
+            return usageHistogram.copy();
+        }
+
+        long getTimeoutCount() {
+            return timeouts.sum();
+        }
+
+        void reset() {
+            acquireHistogram.reset();
+            usageHistogram.reset();
+            timeouts.reset();
+        }
+    }
+}
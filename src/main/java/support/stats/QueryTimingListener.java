@@ -0,0 +1,32 @@
+package support.stats;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * statement 실행시간 측정, hibernate.session.events.auto 에 등록하면 세션마다 생성된다.
+ * executeQuery, executeUpdate 전후 시간을 ns 로 재서 QueryTimings 가 기록해둔 SQL 에 µs 로 기록한다.
+ * 결과 행을 읽는 시간은 포함하지 않는다.
+ */
+public class QueryTimingListener extends BaseSessionEventListener {
+    private QueryTimings.Prepared prepared;
+    private long start;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        prepared = QueryTimings.takePrepared();
+        start = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        if (prepared != null) {
+            prepared.executed(System.nanoTime() - start);
+            prepared = null;
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        QueryTimings.takePrepared(); // batch 로 prepare 한 SQL 을 다음 statement 에 잘못 기록하지 않게 버린다.
+    }
+}
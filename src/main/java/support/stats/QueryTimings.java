@@ -0,0 +1,96 @@
+package support.stats;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * SQL 별 실행시간(µs), flush 소요시간(µs) 히스토그램
+ * 기본 통계(Statistics)는 쿼리별 평균, 최대 시간만 제공하고 그마저 ms 로 잘라서 기록하므로 1ms 미만인 쿼리는 모두 0 이 된다.
+ * 여기서는 기본 통계와 별도로 statement 실행시간을 직접 재서 기록한다.
+ * 1. hibernate.session_factory.statement_inspector 로 등록되어 SessionFactory 마다 하나 만들어지고, prepare 하는 SQL 을 현재 스레드에 기록한다.
+ * 2. 세션마다 만들어지는 QueryTimingListener 가 그 SQL 의 executeQuery/executeUpdate 전후 시간을 재서 record 한다.
+ * SQL 별 히스토그램은 hibernate.statistics.query_max_size (기본 5000) 개까지 두고 넘으면 오래 쓰지 않은 SQL 부터 버린다. (StatisticsIntegrator 가 설정)
+ * JDBC batch 와 세션마다 다른 StatementInspector 를 쓰는 세션(QueryCounter)의 statement 는 기록하지 않는다.
+ */
+public class QueryTimings implements StatementInspector {
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final ThreadLocal<Prepared> PREPARED = new ThreadLocal<>();
+
+    private final Map<String, Histogram> queryHistograms = new LinkedHashMap<>(16, 0.75f, true) { // 접근 순서, 가장 오래 쓰지 않은 SQL 이 앞에 온다.
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Histogram> eldest) {
+            return size() > maxQueries;
+        }
+    };
+    private final Histogram flushHistogram = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+    private volatile int maxQueries = Statistics.DEFAULT_QUERY_STATISTICS_MAX_SIZE;
+
+    @Override
+    public String inspect(String sql) {
+        PREPARED.set(new Prepared(this, sql));
+        return sql;
+    }
+
+    /**
+     * 현재 스레드에서 마지막으로 prepare 한 SQL, 없으면 null
+     * 한 번만 꺼낼 수 있으므로 같은 SQL 이 두 번 기록되지 않는다.
+     */
+    static Prepared takePrepared() {
+        Prepared prepared = PREPARED.get();
+        PREPARED.remove();
+        return prepared;
+    }
+
+    void setMaxQueries(int maxQueries) {
+        this.maxQueries = maxQueries;
+    }
+
+    void queryExecuted(String sql, long micros) {
+        Histogram histogram;
+        synchronized (queryHistograms) {
+            histogram = queryHistograms.computeIfAbsent(sql, key -> new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+        }
+        histogram.recordValue(Math.max(micros, 0));
+    }
+
+    /**
+     * FlushTimingListener 가 flush, auto flush 소요시간(µs)을 기록한다.
+     */
+    void flushExecuted(long micros) {
+        flushHistogram.recordValue(Math.max(micros, 0));
+    }
+
+    /**
+     * SQL 별 히스토그램 복사본을 넘겨준다.
+     */
+    public void forEachQueryHistogram(BiConsumer<String, Histogram> consumer) {
+        Map<String, Histogram> copies = new LinkedHashMap<>();
+        synchronized (queryHistograms) {
+            copies.putAll(queryHistograms);
+        }
+        copies.forEach((sql, histogram) -> consumer.accept(sql, histogram.copy()));
+    }
+
+    public Histogram getFlushHistogram() {
+        return flushHistogram.copy();
+    }
+
+    public void clear() {
+        synchronized (queryHistograms) {
+            queryHistograms.clear();
+        }
+        flushHistogram.reset();
+    }
+
+    record Prepared(QueryTimings timings, String sql) {
+        void executed(long nanos) {
+            timings.queryExecuted(sql, nanos / 1_000);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package support.stats;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * FlushTimingListener 를 등록하고 QueryTimings 의 SQL 개수 제한을 hibernate.statistics.query_max_size 로 맞춘다.
+ * META-INF/services 로 자동 등록된다.
+ */
+public class StatisticsIntegrator implements Integrator {
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        FlushTimingListener start = new FlushTimingListener.Start();
+        FlushTimingListener end = new FlushTimingListener.End();
+        registry.prependListeners(EventType.FLUSH, start);
+        registry.appendListeners(EventType.FLUSH, end);
+        registry.prependListeners(EventType.AUTO_FLUSH, start);
+        registry.appendListeners(EventType.AUTO_FLUSH, end);
+
+        StatementInspector inspector = sessionFactory.getSessionFactoryOptions().getStatementInspector();
+        if (inspector instanceof QueryTimings timings) {
+            timings.setMaxQueries(sessionFactory.getSessionFactoryOptions().getQueryStatisticsMaxSize());
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+}
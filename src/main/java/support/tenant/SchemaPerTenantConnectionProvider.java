@@ -0,0 +1,82 @@
+package support.tenant;
+
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+import org.hibernate.service.spi.Configurable;
+import org.hibernate.service.spi.Stoppable;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * 스키마 단위 멀티테넌시 커넥션 제공
+ * 커넥션 풀(HikariCP) 하나를 모든 테넌트가 함께 쓰고, 커넥션을 꺼낼 때 테넌트 스키마로 바꾼다. (Connection.setSchema)
+ * 풀 설정은 hibernate.hikari.* 를 그대로 사용하므로 테넌트가 늘어도 커넥션 수는 maximumPoolSize 를 넘지 않는다.
+ * 스키마가 없는 테넌트는 커넥션을 얻을 때 실패한다. 스키마는 TenantSchemas 로 만든다.
+ * hibernate.multi_tenant_connection_provider 에 설정한다.
+ */
+public class SchemaPerTenantConnectionProvider implements MultiTenantConnectionProvider, Configurable, Stoppable {
+    private final HikariCPConnectionProvider connectionProvider = new HikariCPConnectionProvider();
+
+    @Override
+    public void configure(Map<String, Object> settings) {
+        connectionProvider.configure(settings);
+    }
+
+    /**
+     * 스키마 생성(hbm2ddl), 메타데이터 조회용, PUBLIC 스키마
+     */
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return getConnection(TenantContext.DEFAULT_TENANT);
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connectionProvider.closeConnection(connection);
+    }
+
+    /**
+     * 풀의 커넥션은 이전에 사용한 테넌트의 스키마일 수 있으므로 매번 바꾼다.
+     */
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        Connection connection = connectionProvider.getConnection();
+        try {
+            connection.setSchema(tenantIdentifier);
+            return connection;
+        } catch (SQLException e) {
+            connectionProvider.closeConnection(connection);
+            throw e;
+        }
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        connectionProvider.closeConnection(connection);
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    /**
+     * HikariDataSource 로 풀 상태 조회 (PersistenceMetrics, UnitOfWorkExecutor.poolSize)
+     */
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this) || connectionProvider.isUnwrappableAs(unwrapType);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        return unwrapType.isInstance(this) ? unwrapType.cast(this) : connectionProvider.unwrap(unwrapType);
+    }
+
+    @Override
+    public void stop() {
+        connectionProvider.stop();
+    }
+}
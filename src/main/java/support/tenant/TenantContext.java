@@ -0,0 +1,67 @@
+package support.tenant;
+
+import domain.School;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드의 테넌트(학교 스키마)
+ * 학교마다 스키마 SCHOOL_{학교 id} 를 두고 모든 테이블을 스키마마다 만든다. (TenantSchemas)
+ * 테넌트를 지정하지 않으면 PUBLIC 스키마 (학교 목록 등 공용 데이터, 멀티테넌시를 쓰지 않을 때와 같은 테이블)
+ * TenantIdentifierResolver 가 엔티티매니저를 만들 때 이 값을 읽으므로 엔티티매니저는 run, call 안에서 만든다.
+ * 스레드 로컬이므로 다른 스레드에서 실행하는 작업은 그 안에서 다시 지정한다. (UnitOfWorkExecutor 는 제출한 스레드의 테넌트를 지정한다)
+ *
+ * <pre>
+ * TenantContext.run(TenantContext.tenantOf(school), () -&gt; tx.executeWithoutResult(em -&gt; em.persist(schoolClass)));
+ * </pre>
+ */
+public final class TenantContext {
+    public static final String DEFAULT_TENANT = "PUBLIC";
+    private static final ThreadLocal<String> current = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @param school 공용 스키마(PUBLIC)에 저장된 학교
+     */
+    public static String tenantOf(School school) {
+        if (school.getId() == null) {
+            throw new IllegalArgumentException("school is not persisted: " + school.getName());
+        }
+        return tenantOf(school.getId());
+    }
+
+    public static String tenantOf(long schoolId) {
+        return "SCHOOL_" + schoolId;
+    }
+
+    public static String current() {
+        String tenant = current.get();
+        return tenant == null ? DEFAULT_TENANT : tenant;
+    }
+
+    /**
+     * work 를 tenant 에서 실행한다. 끝나면 이전 테넌트로 되돌린다.
+     */
+    public static <T> T call(String tenant, Supplier<T> work) {
+        String previous = current.get();
+        current.set(tenant);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                current.remove();
+            } else {
+                current.set(previous);
+            }
+        }
+    }
+
+    public static void run(String tenant, Runnable work) {
+        call(tenant, () -> {
+            work.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,22 @@
+package support.tenant;
+
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * 세션(엔티티매니저)을 만들 때 테넌트를 지정하지 않으면 TenantContext 의 현재 테넌트를 사용한다.
+ * hibernate.tenant_identifier_resolver 에 설정한다.
+ */
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        return TenantContext.current();
+    }
+
+    /**
+     * getCurrentSession 으로 얻은 세션의 테넌트가 현재 테넌트와 다르면 예외
+     */
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return true;
+    }
+}
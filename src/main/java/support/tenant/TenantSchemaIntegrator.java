@@ -0,0 +1,88 @@
+package support.tenant;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.SourceType;
+import org.hibernate.tool.schema.TargetType;
+import org.hibernate.tool.schema.internal.ExceptionHandlerHaltImpl;
+import org.hibernate.tool.schema.spi.ContributableMatcher;
+import org.hibernate.tool.schema.spi.ExecutionOptions;
+import org.hibernate.tool.schema.spi.SchemaManagementTool;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.hibernate.tool.schema.spi.ScriptSourceInput;
+import org.hibernate.tool.schema.spi.ScriptTargetOutput;
+import org.hibernate.tool.schema.spi.SourceDescriptor;
+import org.hibernate.tool.schema.spi.TargetDescriptor;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 멀티테넌시가 설정되어 있으면 매핑에서 테넌트 스키마 DDL 을 만들어 TenantSchemas 에 등록한다. META-INF/services 로 자동 등록된다.
+ * 스키마를 지정하지 않은 DDL 이므로 테넌트 스키마로 바꾼 커넥션에서 실행하면 그 스키마에 만들어진다.
+ */
+public class TenantSchemaIntegrator implements Integrator {
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        if (sessionFactory.getSessionFactoryOptions().isMultiTenancyEnabled()) {
+            TenantSchemas.register(sessionFactory, createDdl(metadata, sessionFactory));
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        TenantSchemas.unregister(sessionFactory);
+    }
+
+    private static List<String> createDdl(Metadata metadata, SessionFactoryImplementor sessionFactory) {
+        Map<String, Object> settings = new HashMap<>(sessionFactory.getServiceRegistry().getService(ConfigurationService.class).getSettings());
+        settings.put(AvailableSettings.FORMAT_SQL, "false"); // 한 줄로
+        ExecutionOptions options = SchemaManagementToolCoordinator.buildExecutionOptions(settings, ExceptionHandlerHaltImpl.INSTANCE);
+        List<String> ddl = new ArrayList<>();
+        sessionFactory.getServiceRegistry().getService(SchemaManagementTool.class)
+                .getSchemaCreator(settings)
+                .doCreation(metadata, options, ContributableMatcher.ALL, new SourceDescriptor() {
+                    @Override
+                    public SourceType getSourceType() {
+                        return SourceType.METADATA;
+                    }
+
+                    @Override
+                    public ScriptSourceInput getScriptSourceInput() {
+                        return null;
+                    }
+                }, new TargetDescriptor() {
+                    @Override
+                    public EnumSet<TargetType> getTargetTypes() {
+                        return EnumSet.of(TargetType.SCRIPT);
+                    }
+
+                    @Override
+                    public ScriptTargetOutput getScriptTargetOutput() {
+                        return new ScriptTargetOutput() {
+                            @Override
+                            public void prepare() {
+                            }
+
+                            @Override
+                            public void accept(String command) {
+                                ddl.add(command);
+                            }
+
+                            @Override
+                            public void release() {
+                            }
+                        };
+                    }
+                });
+        return ddl;
+    }
+}
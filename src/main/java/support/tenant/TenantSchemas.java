@@ -0,0 +1,132 @@
+package support.tenant;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * 테넌트(학교) 스키마 생성, 삭제
+ * 테이블, 시퀀스, 인덱스 DDL 은 엔티티매니저팩토리를 만들 때 매핑에서 한번 만들어 두고 (TenantSchemaIntegrator) 스키마마다 실행한다.
+ * PUBLIC 스키마는 hibernate.hbm2ddl.auto 로 만든다.
+ * 삭제한 테넌트는 다시 만들지 않는다. 2차 캐시와 시퀀스 할당(pooled optimizer) 상태가 테넌트별로 메모리에 남아 있다.
+ */
+public class TenantSchemas {
+    private static final System.Logger log = System.getLogger(TenantSchemas.class.getName());
+    private static final Pattern TENANT = Pattern.compile("[A-Z][A-Z0-9_]{0,62}"); // DDL 에 그대로 쓰므로 따옴표가 필요 없는 식별자만
+    private static final Map<SessionFactory, TenantSchemas> registry = new ConcurrentHashMap<>();
+
+    private final SessionFactory sessionFactory;
+    private final List<String> ddl;
+
+    private TenantSchemas(SessionFactory sessionFactory, List<String> ddl) {
+        this.sessionFactory = sessionFactory;
+        this.ddl = List.copyOf(ddl);
+    }
+
+    /**
+     * @throws IllegalStateException 멀티테넌시 설정(hibernate.multi_tenant_connection_provider)이 없는 엔티티매니저팩토리
+     */
+    public static TenantSchemas of(EntityManagerFactory emf) {
+        TenantSchemas schemas = registry.get(emf.unwrap(SessionFactory.class));
+        if (schemas == null) {
+            throw new IllegalStateException("multi-tenancy is not enabled");
+        }
+        return schemas;
+    }
+
+    static void register(SessionFactory sessionFactory, List<String> ddl) {
+        registry.put(sessionFactory, new TenantSchemas(sessionFactory, ddl));
+    }
+
+    static void unregister(SessionFactory sessionFactory) {
+        registry.remove(sessionFactory);
+    }
+
+    /**
+     * 스키마를 만들고 테이블을 생성한다. 테이블 생성에 실패하면 스키마도 지운다.
+     * @return 이미 있으면 false
+     */
+    public synchronized boolean create(String tenant) {
+        validate(tenant);
+        if (exists(tenant)) {
+            return false;
+        }
+        long start = System.nanoTime();
+        execute(TenantContext.DEFAULT_TENANT, List.of("create schema " + tenant));
+        try {
+            execute(tenant, ddl);
+        } catch (RuntimeException e) {
+            execute(TenantContext.DEFAULT_TENANT, List.of("drop schema " + tenant + " cascade"));
+            throw e;
+        }
+        log.log(System.Logger.Level.INFO, "created tenant schema {0}: {1} statements ({2} ms)",
+                tenant, ddl.size(), (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /**
+     * 스키마와 데이터를 모두 지운다.
+     * @return 없으면 false
+     */
+    public synchronized boolean drop(String tenant) {
+        validate(tenant);
+        if (tenant.equals(TenantContext.DEFAULT_TENANT)) {
+            throw new IllegalArgumentException("cannot drop the default tenant");
+        }
+        if (!exists(tenant)) {
+            return false;
+        }
+        execute(TenantContext.DEFAULT_TENANT, List.of("drop schema " + tenant + " cascade"));
+        return true;
+    }
+
+    public boolean exists(String tenant) {
+        try (Session session = openSession(TenantContext.DEFAULT_TENANT)) {
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "select count(*) from information_schema.schemata where schema_name = ?")) {
+                    statement.setString(1, tenant);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        resultSet.next();
+                        return resultSet.getLong(1) > 0;
+                    }
+                }
+            });
+        }
+    }
+
+    private void execute(String tenant, List<String> statements) {
+        try (Session session = openSession(tenant)) {
+            Transaction tx = session.beginTransaction();
+            session.doWork(connection -> {
+                try (Statement statement = connection.createStatement()) {
+                    for (String sql : statements) {
+                        statement.execute(sql);
+                    }
+                }
+            });
+            tx.commit();
+        }
+    }
+
+    private Session openSession(String tenant) {
+        return sessionFactory.withOptions()
+                .tenantIdentifier(tenant)
+                .openSession();
+    }
+
+    private static void validate(String tenant) {
+        if (tenant == null || !TENANT.matcher(tenant).matches()) {
+            throw new IllegalArgumentException("invalid tenant identifier: " + tenant);
+        }
+    }
+}
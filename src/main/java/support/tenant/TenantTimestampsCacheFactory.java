@@ -0,0 +1,79 @@
+package support.tenant;
+
+import org.hibernate.cache.internal.StandardTimestampsCacheFactory;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.cache.spi.TimestampsCacheFactory;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Collection;
+
+/**
+ * 테이블 수정 시각(update timestamps)을 테넌트별로 기록한다.
+ * 기본 구현은 테이블 이름만 키로 쓰므로 스키마가 달라도 같은 이름의 테이블이 바뀌면 모든 테넌트의 쿼리 캐시가 무효화된다.
+ * 세션의 테넌트를 테이블 이름 앞에 붙여("SCHOOL_1.student") 기본 구현에 넘긴다. 테넌트가 없는 세션(멀티테넌시 미사용)은 그대로 넘긴다.
+ * region 은 모든 테넌트가 함께 쓰고 테넌트 수 x 테이블 수만큼 키가 생긴다.
+ * hibernate.cache.query_cache_factory 에 설정한다.
+ */
+public class TenantTimestampsCacheFactory implements TimestampsCacheFactory {
+    @Override
+    public TimestampsCache buildTimestampsCache(CacheImplementor cacheManager, TimestampsRegion timestampsRegion) {
+        return new TenantTimestampsCache(StandardTimestampsCacheFactory.INSTANCE.buildTimestampsCache(cacheManager, timestampsRegion));
+    }
+
+    private static class TenantTimestampsCache implements TimestampsCache {
+        private final TimestampsCache delegate;
+
+        TenantTimestampsCache(TimestampsCache delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public TimestampsRegion getRegion() {
+            return delegate.getRegion();
+        }
+
+        @Override
+        public void preInvalidate(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.preInvalidate(tenantSpaces(spaces, session), session);
+        }
+
+        @Override
+        public void invalidate(String[] spaces, SharedSessionContractImplementor session) {
+            delegate.invalidate(tenantSpaces(spaces, session), session);
+        }
+
+        @Override
+        public boolean isUpToDate(String[] spaces, Long timestamp, SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(tenantSpaces(spaces, session), timestamp, session);
+        }
+
+        @Override
+        public boolean isUpToDate(Collection<String> spaces, Long timestamp, SharedSessionContractImplementor session) {
+            return delegate.isUpToDate(tenantSpaces(spaces.toArray(String[]::new), session), timestamp, session);
+        }
+
+        @Override
+        public void clear() {
+            delegate.clear();
+        }
+
+        @Override
+        public void destroy() {
+            delegate.destroy();
+        }
+
+        private static String[] tenantSpaces(String[] spaces, SharedSessionContractImplementor session) {
+            String tenant = session.getTenantIdentifier();
+            if (tenant == null) {
+                return spaces;
+            }
+            String[] tenantSpaces = new String[spaces.length];
+            for (int i = 0; i < spaces.length; i++) {
+                tenantSpaces[i] = tenant + "." + spaces[i];
+            }
+            return tenantSpaces;
+        }
+    }
+}
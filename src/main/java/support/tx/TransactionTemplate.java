@@ -0,0 +1,133 @@
+package support.tx;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.LockTimeoutException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.PessimisticLockException;
+import org.hibernate.StaleStateException;
+import org.hibernate.exception.LockAcquisitionException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 트랜잭션 실행 + 락 실패 시 재시도
+ * 엔티티매니저를 만들고 트랜잭션을 시작, 커밋(실패 시 롤백)한 뒤 닫는다.
+ * 낙관적 락 충돌(@Version), 비관적 락 timeout, 데드락이면 백오프 후 새 엔티티매니저로 처음부터 다시 실행한다.
+ * 다시 읽은 최신 값에 변경을 다시 적용하므로 갱신 손실이 없다. 작업은 엔티티매니저 밖의 상태를 바꾸지 않도록 작성한다.
+ *
+ * <pre>
+ * TransactionTemplate tx = new TransactionTemplate(emf, 5);
+ * tx.execute(em -&gt; em.find(SchoolClass.class, id).changeName("호랑이반"));
+ * </pre>
+ */
+public class TransactionTemplate {
+    private static final System.Logger log = System.getLogger(TransactionTemplate.class.getName());
+    private static final long BASE_BACKOFF_MILLIS = 10;
+
+    private final EntityManagerFactory emf;
+    private final int maxAttempts;
+    private final Semaphore permits;
+
+    /**
+     * @param maxAttempts 락 실패 시 최대 실행 횟수 (1 이면 재시도 없음)
+     */
+    public TransactionTemplate(EntityManagerFactory emf, int maxAttempts) {
+        this(emf, maxAttempts, null);
+    }
+
+    /**
+     * @param permits 실행(시도)마다 하나씩 얻고 반납한다. 백오프 중에는 반납한 상태 (UnitOfWorkExecutor 의 동시 실행 수 제한)
+     */
+    TransactionTemplate(EntityManagerFactory emf, int maxAttempts, Semaphore permits) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be positive: " + maxAttempts);
+        }
+        this.emf = emf;
+        this.maxAttempts = maxAttempts;
+        this.permits = permits;
+    }
+
+    /**
+     * work 를 트랜잭션 안에서 실행한다. 결과 엔티티는 트랜잭션이 끝난 뒤 준영속 상태이다.
+     * 재시도 횟수를 넘기면 마지막 예외를 던진다.
+     */
+    public <T> T execute(Function<EntityManager, T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return executeOnce(work);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts || !isLockFailure(e)) {
+                    throw e;
+                }
+                log.log(System.Logger.Level.DEBUG, "lock failure, retrying ({0}/{1}): {2}", attempt, maxAttempts, e);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void executeWithoutResult(Consumer<EntityManager> work) {
+        execute(em -> {
+            work.accept(em);
+            return null;
+        });
+    }
+
+    private <T> T executeOnce(Function<EntityManager, T> work) {
+        if (permits != null) {
+            permits.acquireUninterruptibly();
+        }
+        try {
+            EntityManager em = emf.createEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            try {
+                tx.begin();
+                T result = work.apply(em);
+                tx.commit();
+                return result;
+            } finally {
+                if (tx.isActive()) {
+                    tx.rollback();
+                }
+                em.close();
+            }
+        } finally {
+            if (permits != null) {
+                permits.release();
+            }
+        }
+    }
+
+    /**
+     * 락 관련 예외이면 다시 실행하면 성공할 수 있다. (커밋 시 예외는 RollbackException 으로 감싸져 있으므로 cause 까지 확인)
+     */
+    static boolean isLockFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof OptimisticLockException
+                    || cause instanceof StaleStateException
+                    || cause instanceof PessimisticLockException
+                    || cause instanceof LockTimeoutException
+                    || cause instanceof LockAcquisitionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 같은 행을 두고 경쟁하는 작업들이 동시에 다시 시도하지 않도록 지수 백오프 + jitter
+     */
+    private static void backoff(int attempt) {
+        long max = BASE_BACKOFF_MILLIS << Math.min(attempt - 1, 6);
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(max / 2, max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting to retry", e);
+        }
+    }
+}
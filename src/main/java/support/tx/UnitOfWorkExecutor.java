@@ -0,0 +1,115 @@
+package support.tx;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.service.spi.Wrapped;
+import support.tenant.TenantContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * 작업 단위(트랜잭션 하나)를 동시에 실행한다.
+ * 작업마다 엔티티매니저를 새로 만들고 트랜잭션을 시작, 커밋(실패 시 롤백)한 뒤 닫는다. 엔티티매니저는 스레드 간에 공유하지 않는다.
+ * 1. 기본 실행기는 가상 스레드(작업마다 스레드 하나)이므로 수천 개의 작업을 한번에 제출해도 된다.
+ * 2. 동시에 엔티티매니저를 여는 작업 수는 maxConcurrency(기본값은 커넥션 풀 크기)로 제한한다.
+ *    제한하지 않으면 풀보다 많은 작업이 커넥션을 기다리다 connectionTimeout 으로 실패한다.
+ * 3. 락 획득 실패(비관적 락 timeout, 데드락), 낙관적 락 충돌은 TransactionTemplate 이 maxAttempts 번까지 다시 실행한다.
+ *    재시도를 기다리는 동안에는 동시 실행 수에서 빠진다.
+ * 4. 작업은 제출한 스레드의 테넌트(TenantContext)에서 실행한다.
+ *
+ * <pre>
+ * try (UnitOfWorkExecutor executor = UnitOfWorkExecutor.create(emf)) {
+ *     CompletableFuture&lt;Person&gt; person = executor.submit(em -&gt; em.find(Person.class, id));
+ * }
+ * </pre>
+ * JDBC 드라이버, 커넥션 풀의 synchronized 블록 안에서는 가상 스레드가 캐리어 스레드에 고정(pinning)된다.
+ * 이 경우에도 동시 실행 수는 maxConcurrency 로 제한되므로 캐리어 스레드가 모두 고정되지는 않는다.
+ */
+public class UnitOfWorkExecutor implements AutoCloseable {
+    private static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private final ExecutorService executor;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * @param executor       작업을 실행할 스레드, close 시 함께 종료한다.
+     * @param maxConcurrency 동시에 열 수 있는 엔티티매니저(커넥션) 수
+     * @param maxAttempts    락 실패 시 최대 실행 횟수 (1 이면 재시도 없음)
+     */
+    public UnitOfWorkExecutor(EntityManagerFactory emf, ExecutorService executor, int maxConcurrency, int maxAttempts) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive: " + maxConcurrency);
+        }
+        this.executor = executor;
+        this.transactionTemplate = new TransactionTemplate(emf, maxAttempts, new Semaphore(maxConcurrency, true));
+    }
+
+    /**
+     * 가상 스레드 실행기, 동시 실행 수는 커넥션 풀 크기
+     */
+    public static UnitOfWorkExecutor create(EntityManagerFactory emf) {
+        return new UnitOfWorkExecutor(emf, Executors.newVirtualThreadPerTaskExecutor(), poolSize(emf), DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * HikariCP 의 maximumPoolSize, 다른 커넥션 풀이면 하이버네이트 기본 풀 크기(hibernate.connection.pool_size) 를 따른다.
+     */
+    public static int poolSize(EntityManagerFactory emf) {
+        SessionFactoryImplementor sessionFactory = emf.unwrap(SessionFactoryImplementor.class);
+        Wrapped connectionProvider = sessionFactory.getSessionFactoryOptions().isMultiTenancyEnabled()
+                ? sessionFactory.getServiceRegistry().getService(MultiTenantConnectionProvider.class)
+                : sessionFactory.getServiceRegistry().getService(ConnectionProvider.class);
+        if (connectionProvider != null && connectionProvider.isUnwrappableAs(HikariDataSource.class)) {
+            return connectionProvider.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        }
+        Object poolSize = sessionFactory.getProperties().get("hibernate.connection.pool_size");
+        return poolSize == null ? 20 : Integer.parseInt(poolSize.toString());
+    }
+
+    /**
+     * work 를 트랜잭션 안에서 실행한다. 결과 엔티티는 트랜잭션이 끝난 뒤 준영속 상태이다.
+     */
+    public <T> CompletableFuture<T> submit(Function<EntityManager, T> work) {
+        String tenant = TenantContext.current();
+        return CompletableFuture.supplyAsync(() -> TenantContext.call(tenant, () -> transactionTemplate.execute(work)), executor);
+    }
+
+    /**
+     * 모든 작업을 제출하고 끝날 때까지 기다린다. 실패한 작업이 있으면 첫번째 예외를 던진다.
+     * @return works 와 같은 순서의 결과
+     */
+    public <T> List<T> invokeAll(List<? extends Function<EntityManager, T>> works) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(works.size());
+        for (Function<EntityManager, T> work : works) {
+            futures.add(submit(work));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (CompletableFuture<T> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        return results;
+    }
+
+    /**
+     * 제출한 작업이 모두 끝날 때까지 기다린 뒤 실행기를 종료한다.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+}
@@ -0,0 +1,165 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.querycount.QueryCounter;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+batch fetch 예시 (hibernate.default_batch_fetch_size, @BatchSize)
+N개를 순회하며 지연로딩해도 쿼리 수는 1 + N / 배치 크기
+ */
+public class BatchFetchTests {
+    private static final int SCHOOLS = 120;
+    private static final int CLASSES_PER_SCHOOL = 2;
+    private static final int PERSONS_PER_CLASS = 2;
+
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:batchfetch", // 다른 테스트와 DB 분리, 반 개수를 정확히 센다.
+                "hibernate.show_sql", "false"));
+
+        // given 학교 120개, 반 240개, 학생 480명
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        for (int i = 0; i < SCHOOLS; i++) {
+            School school = School.builder().name("학교" + i).build();
+            for (int j = 0; j < CLASSES_PER_SCHOOL; j++) {
+                SchoolClass schoolClass = SchoolClass.builder().name("반" + i + "-" + j).build();
+                for (int k = 0; k < PERSONS_PER_CLASS; k++) {
+                    schoolClass.addPerson(Person.builder().rank(SchoolRank.STUDENT).name("학생" + i + "-" + j + "-" + k).build());
+                }
+                school.addClass(schoolClass);
+            }
+            em.persist(school);
+        }
+        tx.commit();
+        em.close();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+    @Test
+    public void 반_N개의_personList_순회() {
+        // personList @BatchSize(size = 100)
+        Assert.assertEquals(1 + 1, personListQueries(1));
+        Assert.assertEquals(1 + 1, personListQueries(10));
+        Assert.assertEquals(1 + 1, personListQueries(100));
+        Assert.assertEquals(1 + 3, personListQueries(240));
+    }
+
+    @Test
+    public void 페이징한_반의_personList_만_조회한다() {
+        // 반 240개 중 2개만 조회하고 personList 하나를 초기화하면 그 2개 반의 학생 4명만 영속성 컨텍스트에 올라온다.
+        // @Fetch(SUBSELECT) 였다면 서브쿼리가 offset/limit 없이 모든 반을 다시 조회해 학생 480명을 모두 읽는다.
+        EntityManager em = newCounter().createEntityManager(emf);
+        List<SchoolClass> classList = em.createQuery("select c from SchoolClass c order by c.id", SchoolClass.class)
+                .setFirstResult(10)
+                .setMaxResults(2)
+                .getResultList();
+        classList.get(0).getPersonList().size();
+
+        Assert.assertEquals(2 + 2 * PERSONS_PER_CLASS, em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities());
+        em.close();
+    }
+
+    @Test
+    public void 학생_N명의_myClass_프록시_순회() {
+        // SchoolClass @BatchSize(size = 100), 반마다 학생 2명
+        Assert.assertEquals(1 + 1, myClassQueries(2));
+        Assert.assertEquals(1 + 1, myClassQueries(200));
+        Assert.assertEquals(1 + 2, myClassQueries(202));
+        Assert.assertEquals(1 + 3, myClassQueries(480));
+    }
+
+    @Test
+    public void 학교_N개의_classList_순회() {
+        // classList @BatchSize(size = 50)
+        Assert.assertEquals(1 + 1, classListQueries(1));
+        Assert.assertEquals(1 + 1, classListQueries(50));
+        Assert.assertEquals(1 + 2, classListQueries(51));
+        Assert.assertEquals(1 + 3, classListQueries(120));
+    }
+
+    @Test
+    public void 반_N개의_school_프록시_순회() {
+        // School 에는 @BatchSize 가 없으므로 hibernate.default_batch_fetch_size(100), 학교마다 반 2개
+        Assert.assertEquals(1 + 1, schoolQueries(200));
+        Assert.assertEquals(1 + 2, schoolQueries(240));
+    }
+
+    private static int personListQueries(int classes) {
+        QueryCounter counter = newCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<SchoolClass> classList = em.createQuery("select c from SchoolClass c order by c.id", SchoolClass.class)
+                .setMaxResults(classes)
+                .getResultList();
+        int persons = 0;
+        for (SchoolClass schoolClass : classList) {
+            persons += schoolClass.getPersonList().size();
+        }
+        Assert.assertEquals(classes * PERSONS_PER_CLASS, persons);
+        em.close();
+        return counter.getCount();
+    }
+
+    private static int myClassQueries(int persons) {
+        QueryCounter counter = newCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<Person> personList = em.createQuery("select p from Person p order by p.id", Person.class)
+                .setMaxResults(persons)
+                .getResultList();
+        for (Person person : personList) {
+            Assert.assertNotNull(person.getMyClass().getName());
+        }
+        em.close();
+        return counter.getCount();
+    }
+
+    private static int classListQueries(int schools) {
+        QueryCounter counter = newCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<School> schoolList = em.createQuery("select s from School s order by s.id", School.class)
+                .setMaxResults(schools)
+                .getResultList();
+        for (School school : schoolList) {
+            Assert.assertEquals(CLASSES_PER_SCHOOL, school.getClassList().size());
+        }
+        em.close();
+        return counter.getCount();
+    }
+
+    private static int schoolQueries(int classes) {
+        QueryCounter counter = newCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<SchoolClass> classList = em.createQuery("select c from SchoolClass c order by c.id", SchoolClass.class)
+                .setMaxResults(classes)
+                .getResultList();
+        for (SchoolClass schoolClass : classList) {
+            Assert.assertNotNull(schoolClass.getSchool().getName());
+        }
+        em.close();
+        return counter.getCount();
+    }
+
+    private static QueryCounter newCounter() {
+        emf.unwrap(SessionFactory.class).getCache().evictAllRegions(); // 2차 캐시 적중 없이 쿼리 수 확인 (JPA evictAll 은 엔티티 캐시만 비운다)
+        return new QueryCounter();
+    }
+}
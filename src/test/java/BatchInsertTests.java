@@ -0,0 +1,76 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.Map;
+
+/*
+JDBC batch insert 예시
+IDENTITY 전략은 insert 시점에 id를 알기 위해 쿼리를 즉시 날려야해서 batch insert 가 불가능하다.
+SEQUENCE 전략 + pooled optimizer 를 사용하면 시퀀스를 한번 호출해 allocationSize 만큼 id를 미리 확보하므로 insert 를 모아서 보낼 수 있다.
+ */
+public class BatchInsertTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of("hibernate.generate_statistics", "true"));
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void cascadePersistBatchInsert() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name("떡잎유치원")
+                .build();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        SchoolClass rabbit = SchoolClass.builder()
+                .name("토끼반")
+                .build();
+        school.addClass(tiger);
+        school.addClass(rabbit);
+        for(int i = 0 ; i < 30 ; i++) {
+            tiger.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("tiger반 이름" + i)
+                    .build());
+            rabbit.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("rabbit반 이름" + i)
+                    .build());
+        }
+        em.persist(school); // 영속성전이에 의해 연관된 엔티티도 persist, 이 시점에는 시퀀스만 호출하고 insert 는 쓰기지연
+        tx.commit();
+        em.close();
+
+        Assert.assertEquals(63, statistics.getEntityInsertCount()); // 엔티티 63개가 insert 됨
+
+        // IDENTITY 전략이였다면 insert 쿼리가 63번 나간다.
+        // 시퀀스 호출 6회(pooled optimizer 는 초기화 시 시퀀스를 한번 더 호출한다) + 테이블별 insert 3개(school, school_class, student)
+        // student insert 는 batch_size(50) 단위로 묶여 2번 실행되지만 같은 PreparedStatement 를 사용한다.
+        Assert.assertEquals(9, statistics.getPrepareStatementCount());
+    }
+}
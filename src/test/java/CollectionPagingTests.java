@@ -0,0 +1,120 @@
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import domain.Person;
+import domain.QPerson;
+import domain.QSchoolClass;
+import domain.SchoolClass;
+import domain.query.SchoolClassPageQuery;
+import domain.type.SchoolRank;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.List;
+import java.util.Map;
+
+/*
+컬렉션 페치 조인 페이징 해결 예시 (FetchJoinTests.collectionJoinPagingExample 참고)
+id 페이징 후 in 절 페치 조인
+ */
+public class CollectionPagingTests {
+    private static EntityManagerFactory emf;
+    private static Statistics statistics;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of("hibernate.generate_statistics", "true"));
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        String[] names = {"호랑이반", "토끼반", "사자반", "기린반", "햇님반"};
+        for (String name : names) {
+            SchoolClass schoolClass = SchoolClass.builder()
+                    .name(name)
+                    .build();
+            for(int i = 0 ; i < 6 ; i++) {
+                Person person = Person.builder()
+                        .rank(SchoolRank.STUDENT)
+                        .email(i + "@naver.com")
+                        .name(name + " 이름" + i)
+                        .build();
+                schoolClass.addPerson(person);
+            }
+            em.persist(schoolClass);
+        }
+        em.persist(SchoolClass.builder().name("빈반").build()); // 사람이 없는 반도 조회된다.
+        tx.commit();
+        em.close();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+    @Before
+    public void before() {
+        statistics.clear();
+    }
+
+    @Test
+    public void jpql_페이징() {
+        EntityManager em = emf.createEntityManager();
+        List<SchoolClass> classList = new SchoolClassPageQuery(em).findPageWithPersons(
+                "select c.id from SchoolClass c order by c.name, c.id", Map.of(), 1, 3);
+
+        // 기린반, 빈반, 사자반, 토끼반, 햇님반, 호랑이반 중 두번째부터 3개
+        Assert.assertEquals(List.of("빈반", "사자반", "토끼반"), classList.stream().map(SchoolClass::getName).toList());
+        for (SchoolClass schoolClass : classList) {
+            Assert.assertTrue(Hibernate.isInitialized(schoolClass.getPersonList())); // 지연로딩 없이 이미 채워져 있음
+        }
+        Assert.assertEquals(0, classList.get(0).getPersonList().size());
+        Assert.assertEquals(6, classList.get(1).getPersonList().size());
+        Assert.assertEquals(2, statistics.getPrepareStatementCount()); // id 페이징 1회 + 페치 조인 1회
+        em.close();
+    }
+
+    @Test
+    public void querydsl_페이징_컬렉션_조건() {
+        EntityManager em = emf.createEntityManager();
+        JPAQueryFactory queryFactory = new JPAQueryFactory(em);
+        QSchoolClass c = QSchoolClass.schoolClass;
+        QPerson p = QPerson.person;
+
+        // 컬렉션 조건은 조인 대신 exists 서브쿼리로 걸어 id가 중복되지 않게 한다.
+        List<SchoolClass> classList = new SchoolClassPageQuery(em).findPageWithPersons(
+                queryFactory.select(c.id)
+                        .from(c)
+                        .where(queryFactory.selectOne()
+                                .from(p)
+                                .where(p.myClass.eq(c), p.name.like("%이름5"))
+                                .exists())
+                        .orderBy(c.id.desc()),
+                0, 2);
+
+        Assert.assertEquals(List.of("햇님반", "기린반"), classList.stream().map(SchoolClass::getName).toList());
+        for (SchoolClass schoolClass : classList) {
+            Assert.assertEquals(6, schoolClass.getPersonList().size()); // 조건과 상관없이 반의 전체 학생을 채운다.
+        }
+        Assert.assertEquals(2, statistics.getPrepareStatementCount());
+        em.close();
+    }
+
+    @Test
+    public void 빈_페이지는_쿼리_1회() {
+        EntityManager em = emf.createEntityManager();
+        List<SchoolClass> classList = new SchoolClassPageQuery(em).findPageWithPersons(
+                "select c.id from SchoolClass c where c.name = :name", Map.of("name", "없는반"), 0, 10);
+        Assert.assertTrue(classList.isEmpty());
+        Assert.assertEquals(1, statistics.getPrepareStatementCount());
+        em.close();
+    }
+}
@@ -0,0 +1,131 @@
+import domain.Person;
+import org.junit.Assert;
+import org.junit.Test;
+import support.stats.MetricsSnapshot;
+import support.stats.PersistenceMetrics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+커넥션 풀(HikariCP) 예시
+풀 지표 예시
+ */
+public class ConnectionPoolTests {
+    @Test
+    public void 커넥션_획득_지표() {
+        EntityManagerFactory emf = createEntityManagerFactory(Map.of());
+        try (PersistenceMetrics metrics = PersistenceMetrics.register(emf, "ConnectionPoolTests")) {
+            metrics.reset();
+            for (int i = 0; i < 5; i++) {
+                inTransaction(emf);
+            }
+
+            MetricsSnapshot.Pool pool = metrics.snapshot().pool();
+            Assert.assertNotNull(pool); // HikariCP 를 사용하면 풀 지표가 채워진다.
+            Assert.assertEquals(10, pool.max());
+            Assert.assertEquals(0, pool.active()); // 트랜잭션이 끝나면 커넥션 반납
+            Assert.assertTrue(pool.total() >= 2); // minimumIdle
+            Assert.assertEquals(5, pool.acquire().count()); // 트랜잭션마다 1번 획득
+            Assert.assertEquals(5, pool.usage().count());
+            Assert.assertEquals(0, pool.timeouts());
+        } finally {
+            emf.close();
+        }
+    }
+
+    @Test
+    public void 풀보다_많은_스레드가_동시에_사용() throws Exception {
+        EntityManagerFactory emf = createEntityManagerFactory(Map.of("hibernate.hikari.maximumPoolSize", "2"));
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (PersistenceMetrics metrics = PersistenceMetrics.register(emf, "ConnectionPoolTests")) {
+            metrics.reset();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 20; j++) {
+                        inTransaction(emf);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(); // 커넥션 2개를 8개 스레드가 나눠쓰지만 대기 후 모두 성공
+            }
+
+            MetricsSnapshot.Pool pool = metrics.snapshot().pool();
+            Assert.assertEquals(2, pool.total());
+            Assert.assertEquals(160, pool.acquire().count());
+            Assert.assertEquals(0, pool.timeouts());
+        } finally {
+            executor.shutdown();
+            emf.close();
+        }
+    }
+
+    @Test
+    public void 커넥션을_얻지_못하면_connectionTimeout_후_예외() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hikari.maximumPoolSize", "1");
+        properties.put("hibernate.hikari.minimumIdle", "1");
+        properties.put("hibernate.hikari.connectionTimeout", "250"); // 최소값
+        EntityManagerFactory emf = createEntityManagerFactory(properties);
+        try (PersistenceMetrics metrics = PersistenceMetrics.register(emf, "ConnectionPoolTests")) {
+            metrics.reset();
+            EntityManager holder = emf.createEntityManager();
+            holder.getTransaction().begin();
+            holder.find(Person.class, 1L); // 첫 쿼리에서 커넥션을 얻고 트랜잭션이 끝날 때까지 하나뿐인 커넥션을 점유
+
+            EntityManager waiting = emf.createEntityManager();
+            waiting.getTransaction().begin();
+            try {
+                waiting.createQuery("select count(p) from Person p", Long.class).getSingleResult();
+                Assert.fail();
+            } catch (PersistenceException e) {
+                // 250ms 기다린 뒤 커넥션 획득 실패
+            }
+            Assert.assertEquals(1, metrics.snapshot().pool().active());
+            Assert.assertEquals(1, metrics.snapshot().pool().timeouts());
+            Assert.assertEquals(1, metrics.getPoolTimeoutCount());
+
+            holder.getTransaction().rollback();
+            holder.close();
+            waiting.getTransaction().rollback();
+            waiting.close();
+            inTransaction(emf); // 반납 후에는 다시 사용 가능
+        } finally {
+            emf.close();
+        }
+    }
+
+    private static EntityManagerFactory createEntityManagerFactory(Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>(overrides);
+        properties.put("javax.persistence.jdbc.url", "jdbc:h2:mem:pool"); // 다른 테스트와 DB 분리
+        properties.put("hibernate.show_sql", "false");
+        return Persistence.createEntityManagerFactory("hello-h2", properties);
+    }
+
+    private static void inTransaction(EntityManagerFactory emf) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        try {
+            tx.begin();
+            em.createQuery("select count(p) from Person p", Long.class).getSingleResult();
+            tx.commit();
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+        }
+    }
+}
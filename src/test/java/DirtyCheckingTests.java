@@ -1,5 +1,6 @@
 import domain.Person;
 import domain.SchoolClass;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
@@ -9,10 +10,14 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.Persistence;
+import support.querycount.QueryCounter;
+
+import java.util.List;
 
 /*
 * 더티체킹 예제
 * 일반적인 더티체킹(update)
+* 바이트코드 향상 더티체킹 예시
  */
 public class DirtyCheckingTests {
 
@@ -91,4 +96,76 @@ public class DirtyCheckingTests {
             em.close();
         }
     }
+
+    /**
+     * 바이트코드 향상(enhance)된 엔티티는 setter, 메서드에서 필드를 바꾸는 순간 어떤 필드가 바뀌었는지 스스로 기록한다.
+     * flush 시 스냅샷과 모든 필드를 비교하지 않고 기록된 필드만 보고, @DynamicUpdate 로 바뀐 컬럼만 update 한다.
+     */
+    @Test
+    public void 바이트코드_향상_더티체킹_변경된_컬럼만_update() {
+        Long personId = persist(Person.builder()
+                .email("kkk@naver.com")
+                .name("길동이")
+                .build());
+
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        Person person = em.find(Person.class, personId);
+        Assert.assertTrue(person instanceof SelfDirtinessTracker); // 바이트코드 향상된 엔티티
+        Assert.assertFalse(((SelfDirtinessTracker) person).$$_hibernate_hasDirtyAttributes());
+
+        person.changeName("두식이");
+        Assert.assertArrayEquals(new String[]{"name"}, ((SelfDirtinessTracker) person).$$_hibernate_getDirtyAttributes());
+
+        counter.clear();
+        tx.commit(); // commit 전에 flush 자동발생함
+        em.close();
+
+        Assert.assertEquals(List.of("update student set name=?, version=? where id=? and version=?"), List.copyOf(counter.getCountsByShape().keySet()));
+        Assert.assertEquals("두식이", find(Person.class, personId).getName());
+    }
+
+    @Test
+    public void 같은_값으로_바꾸면_update_없음() {
+        Long classId = persist(SchoolClass.builder()
+                .name("호랑이반")
+                .build());
+
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        SchoolClass schoolClass = em.find(SchoolClass.class, classId);
+        schoolClass.changeName("호랑이반"); // 같은 값이어도 dirty 로 기록되지만 flush 시 기록된 필드만 스냅샷과 비교하므로 update 는 나가지 않는다.
+        em.flush();
+        Assert.assertTrue(counter.getCountsByShape().keySet().stream().noneMatch(shape -> shape.startsWith("update"))); // update 없음
+
+        schoolClass.changeName("사자반");
+        counter.clear();
+        tx.commit();
+        em.close();
+
+        Assert.assertEquals(List.of("update school_class set name=?, version=? where id=? and version=?"), List.copyOf(counter.getCountsByShape().keySet()));
+        Assert.assertEquals("사자반", find(SchoolClass.class, classId).getName());
+    }
+
+    private Long persist(Object entity) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.persist(entity);
+        em.getTransaction().commit();
+        em.close();
+        return (Long) emf.getPersistenceUnitUtil().getIdentifier(entity);
+    }
+
+    private <T> T find(Class<T> entityClass, Long id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(entityClass, id);
+        } finally {
+            em.close();
+        }
+    }
 }
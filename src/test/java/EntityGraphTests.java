@@ -0,0 +1,168 @@
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import domain.Person;
+import domain.QPerson;
+import domain.School;
+import domain.SchoolClass;
+import domain.query.FetchPlan;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.querycount.QueryCounter;
+
+import java.util.List;
+import java.util.Map;
+
+/*
+엔티티 그래프 예시
+유스케이스별 로딩 범위(FetchPlan) 예시
+ */
+public class EntityGraphTests {
+    private static EntityManagerFactory emf;
+    private static PersistenceUnitUtil util;
+    private static Long schoolId;
+    private static Long tigerId;
+
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of("hibernate.show_sql", "false"));
+        util = emf.getPersistenceUnitUtil();
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name("그래프유치원")
+                .build();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("그래프호랑이반")
+                .build();
+        SchoolClass rabbit = SchoolClass.builder()
+                .name("그래프토끼반")
+                .build();
+        school.addClass(tiger);
+        school.addClass(rabbit);
+        for (int i = 0; i < 3; i++) {
+            tiger.addPerson(Person.builder().rank(SchoolRank.STUDENT).name("그래프호랑이" + i).build());
+            rabbit.addPerson(Person.builder().rank(SchoolRank.STUDENT).name("그래프토끼" + i).build());
+        }
+        em.persist(school);
+        tx.commit();
+        em.close();
+        schoolId = school.getId();
+        tigerId = tiger.getId();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+    @Before
+    public void before() {
+        emf.getCache().evictAll(); // 2차 캐시 적중 없이 쿼리 수 확인
+    }
+
+    @Test
+    public void 정의한_그래프가_모두_있다() {
+        EntityManager em = emf.createEntityManager();
+        for (FetchPlan<?> plan : FetchPlan.ALL) {
+            Assert.assertEquals(plan.graphName(), plan.graph(em).getName());
+        }
+        try {
+            new FetchPlan<>(School.class, "class.withPersons").graph(em); // 다른 엔티티의 그래프
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        em.close();
+    }
+
+    @Test
+    public void classList_는_지연로딩() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        School school = em.find(School.class, schoolId);
+
+        Assert.assertFalse(util.isLoaded(school, "classList"));
+        counter.assertQueryCount(1); // School 만 조회
+        em.close();
+    }
+
+    @Test
+    public void find_에_적용() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        School school = FetchPlan.SCHOOL_WITH_CLASSES.find(em, schoolId);
+
+        Assert.assertTrue(util.isLoaded(school, "classList"));
+        Assert.assertEquals(2, school.getClassList().size());
+        Assert.assertFalse(util.isLoaded(school.getClassList().get(0), "personList")); // 그래프에 없는 연관관계는 지연로딩
+        counter.assertQueryCount(1); // 조인으로 한번에
+        em.close();
+    }
+
+    @Test
+    public void JPQL_에_적용() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<SchoolClass> classList = FetchPlan.CLASS_WITH_PERSONS.apply(em,
+                        em.createQuery("select c from SchoolClass c where c.school.id = :schoolId", SchoolClass.class))
+                .setParameter("schoolId", schoolId)
+                .getResultList();
+
+        Assert.assertEquals(2, classList.size()); // 컬렉션 조인이지만 반이 중복되지 않는다.
+        for (SchoolClass schoolClass : classList) {
+            Assert.assertEquals(3, schoolClass.getPersonList().size());
+        }
+        Assert.assertFalse(util.isLoaded(classList.get(0), "school"));
+        counter.assertQueryCount(1); // 반 개수만큼 personList 조회(N + 1) 없음
+        counter.assertNoNPlusOne();
+        em.close();
+    }
+
+    @Test
+    public void Querydsl_에_적용() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        QPerson p = QPerson.person;
+        List<Person> personList = FetchPlan.PERSON_WITH_CLASS_AND_SCHOOL.apply(em, new JPAQueryFactory(em)
+                        .selectFrom(p)
+                        .where(p.myClass.id.eq(tigerId))
+                        .orderBy(p.id.asc()))
+                .fetch();
+
+        Assert.assertEquals(3, personList.size());
+        for (Person person : personList) {
+            Assert.assertEquals("그래프호랑이반", person.getMyClass().getName());
+            Assert.assertEquals("그래프유치원", person.getMyClass().getSchool().getName()); // 서브그래프
+        }
+        counter.assertQueryCount(1);
+        em.close();
+    }
+
+    @Test
+    public void 그래프에_없는_연관관계는_프록시() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<Person> personList = FetchPlan.PERSON_WITH_CLASS.apply(em,
+                        em.createQuery("select p from Person p where p.myClass.id = :classId", Person.class))
+                .setParameter("classId", tigerId)
+                .getResultList();
+
+        SchoolClass schoolClass = personList.get(0).getMyClass();
+        Assert.assertTrue(util.isLoaded(schoolClass));
+        Assert.assertFalse(util.isLoaded(schoolClass, "school"));
+        counter.assertQueryCount(1);
+
+        Assert.assertEquals("그래프유치원", schoolClass.getSchool().getName()); // 사용 시점에 추가 조회
+        counter.assertQueryCount(2);
+        em.close();
+    }
+}
@@ -103,21 +103,20 @@ public class FetchJoinTests {
     @Test
     public void 지연_로딩_즉시_로딩_섞일_때_N_PLUS_1_예제() {
         EntityManager em = emf.createEntityManager();
-        // School의 SchoolClass 연관관계 필드는 즉시로딩, SchoolClass의 PersonList 필드는 지연로딩인 상태
-        // 마찬가지로 JPQL에서는 지연로딩, 즉시로딩 섞여있든 어떻든 N + 1 발생
-        // em.find 일 때는 마찬가지로 위 테스트케이스에서 설명한 사유로 인해 즉시(EAGER) 로딩인 엔티티필드는 JPA 내부에서 쿼리 최적화 발생
+        // School의 classList, SchoolClass의 PersonList 필드 모두 지연로딩인 상태
+        // 예전에는 classList 가 즉시로딩이라 em.find 시 조인으로 한방에 가져왔지만, School 을 조회할 때마다 반까지 딸려와서 지연로딩으로 바꿨다.
+        // 함께 필요한 경우에는 FetchPlan.SCHOOL_WITH_CLASSES(엔티티 그래프)로 em.find, JPQL 모두 한방에 가져온다. (EntityGraphTests 참고)
 
         //옵션1 em.find 사용
-        School school = em.find(School.class, 1L); // SchoolClassList 연관관계 필드는 즉시로딩이므로 쿼리 최적화로 한방에 가져온다. 쿼리 1회 발생
+        School school = em.find(School.class, 1L); // 쿼리 1회 발생
 
-        //옵션2 JPQL 사용 // 이 시점에 1회 + 즉시로딩 조회 1회해서 쿼리 2회 발생
+        //옵션2 JPQL 사용 // 마찬가지로 쿼리 1회 발생
         //School school = em.createQuery("select s from School s where name = '떡잎유치원'", School.class).getSingleResult();
 
-        for(SchoolClass schoolClass : school.getClassList()) {
+        for(SchoolClass schoolClass : school.getClassList()) { // classList 사용시점에 쿼리 1회 추가 발생
             System.out.println(schoolClass.getPersonList()); // personList 연관관계 필드는 지연로딩이므로 사용시점에 쿼리 추가 발생(2회)
         }
-        // 즉 em.find 사용 시 쿼리 1+2해서 3회 발생
-        // jpql 사용 시 쿼리 2+2해서 4회 발생
+        // 즉 쿼리 1+1+2해서 4회 발생
     }
 
     @Test
@@ -193,11 +192,12 @@ public class FetchJoinTests {
         Assert.assertEquals(2, classList.size()); // 반 2개 조회
         System.out.println("classListSize: " + classList.size());
 
-        for(SchoolClass schoolClass : classList) { // @BatchSize 설정을 안하면 지연로딩에 의해 호출시점에 쿼리가 나가 2번 발생
+        for(SchoolClass schoolClass : classList) { // 배치 설정을 안하면 지연로딩에 의해 호출시점에 쿼리가 나가 2번 발생
             System.out.println(schoolClass.getPersonList().size());
         }
-        // 일반 컬렉션 조인에 페이징을 하면 쿼리가 1 + 2 해서 총 3번 나간다.
-        // SchoolClass의 PersonList 필드 위에 @BatchSize(size = 100) 을 해보자
-        // 해당 연관관계 필드는 최대 사이즈만큼 묶어 보내기 때문에 1 + 1해서 2버 나간다.
+        // 배치 설정 없이 일반 컬렉션 조인에 페이징을 하면 쿼리가 1 + 2 해서 총 3번 나간다.
+        // SchoolClass의 PersonList 필드에는 @BatchSize(size = 100) 가 있어 조회한 반 2개의 personList 를 in 절로 묶어 1 + 1해서 2번 나간다. (BatchFetchTests 참고)
+        // @Fetch(FetchMode.SUBSELECT) 도 2번이지만 서브쿼리가 페이징 없이 '%반%' 인 모든 반의 학생을 조회한다.
+        // 또는 id만 페이징 조회한 후 해당 id 들에 대해서만 in 절로 컬렉션 페치 조인해도 2번 나간다. (SchoolClassPageQuery 참고)
     }
 }
@@ -0,0 +1,189 @@
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import domain.Person;
+import domain.QPerson;
+import domain.School;
+import domain.SchoolClass;
+import domain.query.PersonKeysetQuery;
+import domain.query.PersonSearchQuery;
+import domain.type.SchoolRank;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/*
+인덱스 사용 여부 검증 (H2 EXPLAIN)
+자주 쓰는 조회가 tableScan 으로 바뀌면 실패한다.
+ */
+public class IndexUsageTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:indexusage", // 다른 테스트와 DB 분리
+                "hibernate.show_sql", "false",
+                "hibernate.use_sql_comments", "false"));
+
+        // given 학교 10개, 반 50개, 학생 1000명 (행이 적으면 인덱스가 있어도 tableScan 을 고를 수 있다.)
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        int idNumber = 0;
+        for (int s = 0; s < 10; s++) {
+            School school = School.builder().name("학교" + s).build();
+            for (int c = 0; c < 5; c++) {
+                SchoolClass schoolClass = SchoolClass.builder().name("반" + s + "-" + c).build();
+                for (int p = 0; p < 20; p++) {
+                    schoolClass.addPerson(Person.builder()
+                            .rank(SchoolRank.STUDENT)
+                            .idNumber(String.valueOf(2017_00000 + idNumber++))
+                            .email(idNumber + "@naver.com")
+                            .name("이름" + idNumber)
+                            .build());
+                }
+                school.addClass(schoolClass);
+            }
+            em.persist(school);
+        }
+        tx.commit();
+        em.close();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 학생_이름_조회() {
+        assertUsesIndex("IDX_STUDENT_NAME", explain(em -> em.createQuery("select p from Person p where p.name = :name", Person.class)
+                .setParameter("name", "이름1")
+                .getResultList(), "이름1"));
+        assertUsesIndex("IDX_STUDENT_NAME", explain(em -> em.createQuery("select p from Person p where p.name like :name", Person.class)
+                .setParameter("name", "이름1%")
+                .getResultList(), "이름1%")); // 앞부분이 고정된 like 는 범위 조회
+        assertUsesIndex("IDX_STUDENT_NAME", explain(em -> new JPAQueryFactory(em)
+                .selectFrom(QPerson.person)
+                .where(QPerson.person.name.eq("이름1"))
+                .fetch(), "이름1"));
+
+        // '%반%' 처럼 %로 시작하는 like 는 인덱스를 쓸 수 없다. (FetchJoinTests 의 예시 쿼리)
+        String plan = explain(em -> em.createQuery("select p from Person p where p.name like :name", Person.class)
+                .setParameter("name", "%이름%")
+                .getResultList(), "%이름%");
+        Assert.assertTrue(plan, plan.contains("STUDENT.tableScan"));
+    }
+
+    @Test
+    public void 학생_이름_부분_검색() {
+        // n-gram 색인 PK 로 "름1" 행만 읽고 student 는 pk 로 찾아 비교한다. (PersonSearchQuery)
+        String plan = explain(em -> new PersonSearchQuery(em).findIdsByName("이름12", 10), "NAME", "름1", "%이름12%", 10);
+        assertNoTableScan(plan);
+        Assert.assertTrue(plan, plan.contains("FROM \"PUBLIC\".\"PERSON_NGRAM\""));
+    }
+
+    @Test
+    public void 학생_이메일_학번_조회() {
+        assertUsesIndex("IDX_STUDENT_EMAIL", explain(em -> em.createQuery("select p from Person p where p.email = :email", Person.class)
+                .setParameter("email", "1@naver.com")
+                .getResultList(), "1@naver.com"));
+        assertUsesIndex("UK_STUDENT_SCHOOL_ID", explain(em -> em.createNamedQuery("Person.findByIdNumber", Person.class)
+                .setParameter("idNumber", "201700001")
+                .getResultList(), "201700001"));
+    }
+
+    @Test
+    public void 외래키_조회() {
+        // H2 는 외래키 제약조건에 인덱스를 따로 만들어 idx_student_school_class 대신 그 인덱스를 쓸 수 있다.
+        assertNoTableScan(explain(em -> em.createNamedQuery("Person.findByClassId", Person.class)
+                .setParameter("classId", 1L)
+                .getResultList(), 1L));
+        assertUsesIndex("IDX_SCHOOL_CLASS_SCHOOL", explain(em -> em.createQuery("select c from SchoolClass c where c.school.id = :schoolId", SchoolClass.class)
+                .setParameter("schoolId", 1L)
+                .getResultList(), 1L));
+    }
+
+    @Test
+    public void 반_학교_이름_조회() {
+        assertUsesIndex("IDX_SCHOOL_CLASS_NAME", explain(em -> em.createNamedQuery("SchoolClass.findByName", SchoolClass.class)
+                .setParameter("name", "반1-1")
+                .getResultList(), "반1-1"));
+        assertUsesIndex("IDX_SCHOOL_NAME", explain(em -> em.createNamedQuery("School.findByName", School.class)
+                .setParameter("name", "학교1")
+                .getResultList(), "학교1"));
+    }
+
+    @Test
+    public void keyset_페이징() {
+        EntityManager em = emf.createEntityManager();
+        String nameToken = new PersonKeysetQuery(em).findPage(PersonKeysetQuery.Order.NAME, null, 10).nextToken();
+        String classToken = new PersonKeysetQuery(em).findPage(PersonKeysetQuery.Order.CLASS, null, 10).nextToken();
+        Person lastByName = em.createQuery("select p from Person p order by p.name, p.id", Person.class).setMaxResults(10).getResultList().get(9);
+        Person lastByClass = em.createQuery("select p from Person p order by p.myClass.id, p.id", Person.class).setMaxResults(10).getResultList().get(9);
+        Long lastClassId = lastByClass.getMyClass().getId();
+        em.close();
+
+        // 첫 페이지는 정렬된 인덱스를 앞에서부터 읽다가 11건에서 멈춘다.
+        assertUsesIndex("IDX_STUDENT_NAME", explain(session -> new PersonKeysetQuery(session).findPage(PersonKeysetQuery.Order.NAME, null, 10), 11));
+        assertUsesIndex("IDX_STUDENT_SCHOOL_CLASS", explain(session -> new PersonKeysetQuery(session).findPage(PersonKeysetQuery.Order.CLASS, null, 10), 11));
+        // 다음 페이지는 이전 페이지 마지막 행부터 범위 조회
+        Object[] nameSeek = {lastByName.getName(), lastByName.getName(), lastByName.getId(), 11};
+        assertUsesIndex("IDX_STUDENT_NAME", explain(session -> new PersonKeysetQuery(session).findPage(PersonKeysetQuery.Order.NAME, nameToken, 10), nameSeek));
+        assertUsesIndex("IDX_STUDENT_NAME", explain(session -> new PersonKeysetQuery(session).findPageWithQuerydsl(PersonKeysetQuery.Order.NAME, nameToken, 10), nameSeek));
+        assertNoTableScan(explain(session -> new PersonKeysetQuery(session).findPage(PersonKeysetQuery.Order.CLASS, classToken, 10),
+                lastClassId, lastClassId, lastByClass.getId(), 11)); // 외래키 인덱스 범위 조회
+    }
+
+    private static void assertUsesIndex(String index, String plan) {
+        assertNoTableScan(plan);
+        Assert.assertTrue(plan, plan.contains("PUBLIC." + index));
+    }
+
+    private static void assertNoTableScan(String plan) {
+        Assert.assertFalse(plan, plan.contains("tableScan"));
+    }
+
+    /**
+     * query 가 마지막으로 실행한 SQL 의 실행계획, parameters 는 SQL 의 ? 순서대로
+     */
+    private static String explain(Consumer<EntityManager> query, Object... parameters) {
+        List<String> sqls = new ArrayList<>();
+        Session session = emf.unwrap(SessionFactory.class).withOptions()
+                .statementInspector(sql -> {
+                    sqls.add(sql);
+                    return sql;
+                })
+                .openSession();
+        try {
+            query.accept(session);
+            Assert.assertFalse("no SQL executed", sqls.isEmpty()); // 쿼리 캐시 적중 등
+            String sql = sqls.get(sqls.size() - 1);
+            Assert.assertEquals(sql, parameters.length, sql.chars().filter(c -> c == '?').count());
+            return session.doReturningWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("explain " + sql)) {
+                    for (int i = 0; i < parameters.length; i++) {
+                        statement.setObject(i + 1, parameters[i]);
+                    }
+                    try (ResultSet plan = statement.executeQuery()) {
+                        plan.next();
+                        return plan.getString(1);
+                    }
+                }
+            });
+        } finally {
+            session.close();
+        }
+    }
+}
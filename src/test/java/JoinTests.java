@@ -73,13 +73,13 @@ public class JoinTests {
                 "inner join p.myClass c ";
         //query = "select p from Person p "; // 조건문이 없으니 위와 아래는 결과가 완전 동일
 
-        // myClass 가 즉시로딩이였다면 이 시점에 쿼리 3번 나감, 지연로딩이기에 createQuery 에 1번 나가고 프록시로 받아서 호출시점에 쿼리 2번 더 나감
+        // myClass 가 즉시로딩이였다면 이 시점에 쿼리 2번 나감(반 조회는 in 절로 묶임), 지연로딩이기에 createQuery 에 1번 나가고 프록시로 받아서 호출시점에 쿼리 1번 더 나감
         List<Person> personList = em.createQuery(query, Person.class).getResultList();
 
         System.out.println("쉬고~"); // 즉시로딩과 지연로딩에 따라 이게 언제 호출되나 확인해보자
 
         for(Person person : personList) {
-            System.out.println(person.getMyClass().getName()); // 호랑이반, 토끼반해서 2번 나감
+            System.out.println(person.getMyClass().getName()); // SchoolClass @BatchSize 로 호랑이반, 토끼반을 in 절로 묶어 1번 나감 (없으면 2번)
         }
     }
     @Test
@@ -0,0 +1,123 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.query.KeysetPage;
+import domain.query.PersonKeysetQuery;
+import domain.type.SchoolRank;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiFunction;
+
+/*
+offset 페이징 vs keyset(seek) 페이징 예시
+ */
+public class KeysetPagingTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2");
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name("떡잎유치원")
+                .build();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        SchoolClass rabbit = SchoolClass.builder()
+                .name("토끼반")
+                .build();
+        school.addClass(tiger);
+        school.addClass(rabbit);
+        for(int i = 0 ; i < 30 ; i++) {
+            Person person = Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("이름" + (i % 10)) // 이름이 중복되어도 id로 순서가 정해진다.
+                    .build();
+            (i % 2 == 0 ? tiger : rabbit).addPerson(person);
+        }
+        em.persist(school); // 영속성전이에 의해 연관된 엔티티도 persist
+
+        // 반이 없거나 이름이 없는 사람은 마지막 페이지에 나온다.
+        em.persist(Person.builder().name("반없음").build());
+        em.persist(Person.builder().email("noname@naver.com").build());
+        tx.commit();
+        em.close();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 반_순서_keyset_페이징() {
+        assertSameAsOffsetPaging(PersonKeysetQuery.Order.CLASS, "p.myClass.id", false);
+        assertSameAsOffsetPaging(PersonKeysetQuery.Order.CLASS, "p.myClass.id", true);
+    }
+
+    @Test
+    public void 이름_순서_keyset_페이징() {
+        assertSameAsOffsetPaging(PersonKeysetQuery.Order.NAME, "p.name", false);
+        assertSameAsOffsetPaging(PersonKeysetQuery.Order.NAME, "p.name", true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 다른_정렬의_토큰은_사용할_수_없다() {
+        EntityManager em = emf.createEntityManager();
+        PersonKeysetQuery query = new PersonKeysetQuery(em);
+        KeysetPage<Person> page = query.findPage(PersonKeysetQuery.Order.NAME, null, 5);
+        query.findPage(PersonKeysetQuery.Order.CLASS, page.nextToken(), 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void 잘못된_토큰() {
+        new PersonKeysetQuery(emf.createEntityManager()).findPage(PersonKeysetQuery.Order.NAME, "!!", 5);
+    }
+
+    @Test
+    public void 페이지_크기는_1_이상이어야_한다() {
+        PersonKeysetQuery query = new PersonKeysetQuery(emf.createEntityManager());
+        for (int size : new int[]{0, -1}) {
+            Assert.assertThrows(IllegalArgumentException.class, () -> query.findPage(PersonKeysetQuery.Order.NAME, null, size));
+            Assert.assertThrows(IllegalArgumentException.class, () -> query.findPageWithQuerydsl(PersonKeysetQuery.Order.NAME, null, size));
+        }
+    }
+
+    private void assertSameAsOffsetPaging(PersonKeysetQuery.Order order, String key, boolean querydsl) {
+        EntityManager em = emf.createEntityManager();
+        List<Long> expected = em.createQuery("select p.id from Person p order by " + key + " nulls last, p.id", Long.class)
+                .getResultList();
+
+        PersonKeysetQuery query = new PersonKeysetQuery(em);
+        BiFunction<String, Integer, KeysetPage<Person>> findPage = querydsl
+                ? (token, size) -> query.findPageWithQuerydsl(order, token, size)
+                : (token, size) -> query.findPage(order, token, size);
+
+        List<Long> actual = new ArrayList<>();
+        String token = null;
+        int pages = 0;
+        do {
+            KeysetPage<Person> page = findPage.apply(token, 7); // 이전 페이지의 토큰으로 다음 페이지 조회
+            page.content().forEach(person -> actual.add(person.getId()));
+            token = page.nextToken();
+            pages++;
+        } while (token != null);
+
+        Assert.assertEquals(expected, actual); // 누락, 중복 없이 offset 페이징과 같은 순서
+        Assert.assertEquals(5, pages); // 32건 / 7
+        em.close();
+    }
+}
@@ -0,0 +1,190 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.query.PersonSearchQuery;
+import domain.type.SchoolRank;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.tenant.TenantContext;
+import support.tenant.TenantSchemas;
+import support.tx.TransactionTemplate;
+import support.tx.UnitOfWorkExecutor;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PersistenceException;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/*
+학교별 스키마 멀티테넌시 (support.tenant)
+공용 스키마(PUBLIC)에 학교 목록, 학교마다 스키마 SCHOOL_{id} 에 그 학교의 school, school_class, student
+엔티티매니저팩토리는 하나, 엔티티매니저를 만들 때 TenantContext 의 현재 테넌트 스키마를 사용한다.
+ */
+public class MultiTenancyTests {
+    private static EntityManagerFactory emf;
+    private static Statistics statistics;
+    private static TransactionTemplate tx;
+    private static String futaba;
+    private static String kasukabe;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:tenant", // 다른 테스트와 DB 분리
+                "hibernate.multi_tenant_connection_provider", "support.tenant.SchemaPerTenantConnectionProvider",
+                "hibernate.tenant_identifier_resolver", "support.tenant.TenantIdentifierResolver",
+                "hibernate.show_sql", "false",
+                "hibernate.use_sql_comments", "false"));
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        tx = new TransactionTemplate(emf, 1);
+
+        // given 공용 스키마에 학교 2개를 저장하고 학교마다 스키마 생성
+        School registeredFutaba = tx.execute(em -> persist(em, School.builder().name("떡잎유치원").build()));
+        School registeredKasukabe = tx.execute(em -> persist(em, School.builder().name("떡잎초등학교").build()));
+        futaba = TenantContext.tenantOf(registeredFutaba);
+        kasukabe = TenantContext.tenantOf(registeredKasukabe);
+        Assert.assertTrue(TenantSchemas.of(emf).create(futaba));
+        Assert.assertTrue(TenantSchemas.of(emf).create(kasukabe));
+
+        // 학교 스키마마다 학교, 반, 학생 저장 (떡잎유치원 3명, 떡잎초등학교 5명)
+        TenantContext.run(futaba, () -> tx.executeWithoutResult(em -> em.persist(newSchool("떡잎유치원", "짱구", 3))));
+        TenantContext.run(kasukabe, () -> tx.executeWithoutResult(em -> em.persist(newSchool("떡잎초등학교", "철수", 5))));
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+    @Before
+    public void before() {
+        emf.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    public void 테넌트마다_다른_테이블을_사용한다() {
+        Assert.assertEquals(Long.valueOf(3), inTenant(futaba, MultiTenancyTests::countPersons));
+        Assert.assertEquals(Long.valueOf(5), inTenant(kasukabe, MultiTenancyTests::countPersons));
+        Assert.assertEquals(Long.valueOf(0), inTenant(TenantContext.DEFAULT_TENANT, MultiTenancyTests::countPersons));
+        Assert.assertEquals(Long.valueOf(2), inTenant(TenantContext.DEFAULT_TENANT,
+                em -> em.createQuery("select count(s) from School s", Long.class).getSingleResult()));
+    }
+
+    @Test
+    public void 시퀀스도_테넌트마다_따로_있다() {
+        // 스키마마다 school_seq 가 있으므로 두 학교의 id 가 같다.
+        Long futabaId = inTenant(futaba, em -> findSchoolId(em, "떡잎유치원"));
+        Long kasukabeId = inTenant(kasukabe, em -> findSchoolId(em, "떡잎초등학교"));
+        Assert.assertEquals(futabaId, kasukabeId);
+    }
+
+    @Test
+    public void 같은_id_도_테넌트별로_캐시된다() {
+        Long schoolId = inTenant(futaba, em -> findSchoolId(em, "떡잎유치원"));
+        Assert.assertEquals("떡잎유치원", inTenant(futaba, em -> em.find(School.class, schoolId).getName())); // DB 조회 후 캐시
+        Assert.assertEquals("떡잎초등학교", inTenant(kasukabe, em -> em.find(School.class, schoolId).getName())); // 다른 테넌트의 캐시를 쓰지 않는다.
+        long hitCount = statistics.getSecondLevelCacheHitCount();
+
+        Assert.assertEquals("떡잎유치원", inTenant(futaba, em -> em.find(School.class, schoolId).getName()));
+        Assert.assertEquals("떡잎초등학교", inTenant(kasukabe, em -> em.find(School.class, schoolId).getName()));
+        Assert.assertEquals(hitCount + 2, statistics.getSecondLevelCacheHitCount());
+    }
+
+    @Test
+    public void 쿼리_캐시도_테넌트별로_저장된다() {
+        Function<EntityManager, List<School>> findByName = em -> em.createNamedQuery("School.findByName", School.class)
+                .setParameter("name", "떡잎유치원")
+                .getResultList();
+        Assert.assertEquals(1, inTenant(futaba, findByName).size());
+        Assert.assertEquals(0, inTenant(kasukabe, findByName).size()); // 같은 쿼리, 파라미터지만 테넌트가 달라 캐시 미스
+        Assert.assertEquals(2, statistics.getQueryCacheMissCount());
+
+        Assert.assertEquals(1, inTenant(futaba, findByName).size());
+        Assert.assertEquals(1, statistics.getQueryCacheHitCount());
+
+        // 테이블 수정 시각(update timestamps)도 테넌트별이므로 다른 테넌트의 school 변경에는 무효화되지 않는다. (TenantTimestampsCacheFactory)
+        TenantContext.run(kasukabe, () -> tx.executeWithoutResult(em -> em.persist(School.builder().name("떡잎중학교").build())));
+        Assert.assertEquals(1, inTenant(futaba, findByName).size());
+        Assert.assertEquals(2, statistics.getQueryCacheHitCount());
+        Assert.assertEquals(2, statistics.getQueryCacheMissCount());
+
+        // 같은 테넌트의 school 변경에는 무효화된다.
+        TenantContext.run(futaba, () -> tx.executeWithoutResult(em -> em.persist(School.builder().name("떡잎중학교").build())));
+        Assert.assertEquals(1, inTenant(futaba, findByName).size());
+        Assert.assertEquals(2, statistics.getQueryCacheHitCount());
+        Assert.assertEquals(3, statistics.getQueryCacheMissCount());
+    }
+
+    @Test
+    public void 검색_색인도_테넌트_스키마에_저장된다() {
+        Assert.assertEquals(3, inTenant(futaba, em -> new PersonSearchQuery(em).findByName("짱구", 10)).size());
+        Assert.assertEquals(0, inTenant(kasukabe, em -> new PersonSearchQuery(em).findByName("짱구", 10)).size());
+    }
+
+    @Test
+    public void 작업은_제출한_스레드의_테넌트에서_실행된다() {
+        Assert.assertEquals(10, UnitOfWorkExecutor.poolSize(emf)); // 테넌트가 함께 쓰는 풀 크기
+        try (UnitOfWorkExecutor executor = UnitOfWorkExecutor.create(emf)) {
+            Assert.assertEquals(Long.valueOf(5), TenantContext.call(kasukabe, () -> executor.submit(MultiTenancyTests::countPersons)).join());
+            Assert.assertEquals(Long.valueOf(0), executor.submit(MultiTenancyTests::countPersons).join());
+        }
+    }
+
+    @Test
+    public void 없는_테넌트는_사용할_수_없다() {
+        Assert.assertThrows(PersistenceException.class, () -> inTenant(TenantContext.tenantOf(999), MultiTenancyTests::countPersons));
+        Assert.assertThrows(IllegalArgumentException.class, () -> TenantSchemas.of(emf).create("school_1; drop all objects"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> TenantSchemas.of(emf).drop(TenantContext.DEFAULT_TENANT));
+    }
+
+    @Test
+    public void 테넌트는_한번만_만들어지고_삭제된다() {
+        String tenant = TenantContext.tenantOf(100);
+        TenantSchemas schemas = TenantSchemas.of(emf);
+        Assert.assertTrue(schemas.create(tenant));
+        Assert.assertFalse(schemas.create(tenant));
+        Assert.assertEquals(Long.valueOf(0), inTenant(tenant, MultiTenancyTests::countPersons));
+
+        Assert.assertTrue(schemas.drop(tenant));
+        Assert.assertFalse(schemas.exists(tenant));
+        Assert.assertFalse(schemas.drop(tenant));
+    }
+
+    private static <T> T inTenant(String tenant, Function<EntityManager, T> work) {
+        return TenantContext.call(tenant, () -> tx.execute(work));
+    }
+
+    private static long countPersons(EntityManager em) {
+        return em.createQuery("select count(p) from Person p", Long.class).getSingleResult();
+    }
+
+    private static Long findSchoolId(EntityManager em, String name) {
+        return em.createQuery("select s.id from School s where s.name = :name", Long.class)
+                .setParameter("name", name)
+                .getSingleResult();
+    }
+
+    private static School persist(EntityManager em, School school) {
+        em.persist(school);
+        return school;
+    }
+
+    private static School newSchool(String name, String personName, int persons) {
+        School school = School.builder().name(name).build();
+        SchoolClass schoolClass = SchoolClass.builder().name("해바라기반").build();
+        for (int i = 0; i < persons; i++) {
+            schoolClass.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .name(personName + i)
+                    .build());
+        }
+        school.addClass(schoolClass);
+        return school;
+    }
+}
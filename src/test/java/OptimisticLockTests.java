@@ -0,0 +1,154 @@
+import domain.Person;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.RollbackException;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.PersonBulkUpdater;
+import support.tx.TransactionTemplate;
+import support.tx.UnitOfWorkExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/*
+낙관적 락(@Version) 예시
+재시도 트랜잭션 템플릿 예시
+ */
+public class OptimisticLockTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of("hibernate.show_sql", "false"));
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 수정하면_version_증가() {
+        TransactionTemplate tx = new TransactionTemplate(emf, 1);
+        Long classId = tx.execute(em -> persist(em, SchoolClass.builder().name("호랑이반").build())).getId();
+
+        tx.executeWithoutResult(em -> em.find(SchoolClass.class, classId).changeName("토끼반"));
+
+        Assert.assertEquals(1L, tx.execute(em -> em.find(SchoolClass.class, classId).getVersion()).longValue());
+    }
+
+    @Test
+    public void 먼저_커밋한_수정이_있으면_충돌() {
+        TransactionTemplate tx = new TransactionTemplate(emf, 1);
+        Long classId = tx.execute(em -> persist(em, SchoolClass.builder().name("호랑이반").build())).getId();
+
+        EntityManager em1 = emf.createEntityManager();
+        EntityManager em2 = emf.createEntityManager();
+        em1.getTransaction().begin();
+        em2.getTransaction().begin();
+        em1.find(SchoolClass.class, classId).changeName("em1");
+        em2.find(SchoolClass.class, classId).changeName("em2"); // 둘 다 version 0 을 읽음
+        em1.getTransaction().commit(); // version 0 -> 1
+        try {
+            em2.getTransaction().commit(); // update ... where version = 0 이 0건 -> 충돌
+            Assert.fail();
+        } catch (RollbackException e) {
+            Assert.assertTrue(e.getCause() instanceof OptimisticLockException);
+        }
+        em1.close();
+        em2.close();
+
+        Assert.assertEquals("em1", tx.execute(em -> em.find(SchoolClass.class, classId).getName())); // 나중 커밋이 덮어쓰지 않음
+    }
+
+    @Test
+    public void 충돌하면_최신_값으로_다시_실행() {
+        TransactionTemplate tx = new TransactionTemplate(emf, 1);
+        Long classId = tx.execute(em -> persist(em, SchoolClass.builder().name("0").build())).getId();
+
+        // 같은 행을 락 없이 읽고 1 씩 증가, 충돌한 작업은 다시 읽어서 다시 증가
+        AtomicInteger attempts = new AtomicInteger();
+        List<Function<EntityManager, String>> works = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            works.add(em -> {
+                attempts.incrementAndGet();
+                SchoolClass schoolClass = em.find(SchoolClass.class, classId);
+                String next = String.valueOf(Integer.parseInt(schoolClass.getName()) + 1);
+                schoolClass.changeName(next);
+                return next;
+            });
+        }
+        try (UnitOfWorkExecutor executor = new UnitOfWorkExecutor(emf, Executors.newVirtualThreadPerTaskExecutor(), 4, 100)) {
+            executor.invokeAll(works);
+        }
+
+        Assert.assertEquals("50", tx.execute(em -> em.find(SchoolClass.class, classId).getName())); // 갱신 손실 없음
+        Assert.assertEquals(50L, tx.execute(em -> em.find(SchoolClass.class, classId).getVersion()).longValue());
+        Assert.assertTrue(attempts.get() >= 50);
+    }
+
+    /**
+     * personList 는 mappedBy(연관관계의 주인이 아님)이므로 학생을 추가해도 school_class 행은 바뀌지 않고 version 도 그대로이다.
+     * 반의 구성원 변경도 충돌로 보려면 OPTIMISTIC_FORCE_INCREMENT 로 반의 version 을 강제로 올린다.
+     */
+    @Test
+    public void 학생_추가는_반의_version_을_올리지_않는다() {
+        TransactionTemplate tx = new TransactionTemplate(emf, 1);
+        Long classId = tx.execute(em -> persist(em, SchoolClass.builder().name("호랑이반").build())).getId();
+
+        tx.executeWithoutResult(em -> {
+            Person person = Person.builder().name("짱구").rank(SchoolRank.STUDENT).build();
+            em.find(SchoolClass.class, classId).addPerson(person);
+            em.persist(person);
+        });
+        Assert.assertEquals(0L, tx.execute(em -> em.find(SchoolClass.class, classId).getVersion()).longValue());
+
+        tx.executeWithoutResult(em -> {
+            SchoolClass schoolClass = em.find(SchoolClass.class, classId, LockModeType.OPTIMISTIC_FORCE_INCREMENT);
+            Person person = Person.builder().name("철수").rank(SchoolRank.STUDENT).build();
+            schoolClass.addPerson(person);
+            em.persist(person);
+        });
+        Assert.assertEquals(1L, tx.execute(em -> em.find(SchoolClass.class, classId).getVersion()).longValue());
+    }
+
+    @Test
+    public void 벌크_update_도_version_증가() {
+        TransactionTemplate tx = new TransactionTemplate(emf, 1);
+        SchoolClass schoolClass = SchoolClass.builder().name("사자반").build();
+        schoolClass.addPerson(Person.builder().name("사자").rank(SchoolRank.STUDENT).build());
+        Long classId = tx.execute(em -> persist(em, schoolClass)).getId();
+
+        EntityManager stale = emf.createEntityManager();
+        stale.getTransaction().begin();
+        Person person = stale.createQuery("select p from Person p where p.myClass.id = :classId", Person.class)
+                .setParameter("classId", classId)
+                .getSingleResult(); // 벌크 update 전에 읽음
+
+        tx.executeWithoutResult(em -> new PersonBulkUpdater(em).changeRank(classId, SchoolRank.STUDENT, SchoolRank.STAFF));
+
+        person.changeName("사자 반장");
+        try {
+            stale.getTransaction().commit(); // 벌크 update 로 version 이 바뀌었으므로 rank 를 되돌리지 않고 충돌
+            Assert.fail();
+        } catch (RollbackException e) {
+            Assert.assertTrue(e.getCause() instanceof OptimisticLockException);
+        }
+        stale.close();
+    }
+
+    private static <T> T persist(EntityManager em, T entity) {
+        em.persist(entity);
+        return entity;
+    }
+}
@@ -70,7 +70,7 @@ public class PersistenceContextTests {
         tx.begin();
         try {
             Person person = Person.builder()
-                    .idNumber("201700000")
+                    .idNumber("201700001")
                     .email("zzz@naver.com")
                     .name("홍길동")
                     .rank(SchoolRank.STUDENT)
@@ -136,12 +136,13 @@ public class PersistenceContextTests {
         tx.begin();
 
         Person person = Person.builder()
-                .idNumber("201700000")
+                .idNumber("201700002")
                 .email("zzz@naver.com")
                 .name("홍길동")
                 .rank(SchoolRank.STUDENT)
                 .build();
         em.persist(person); // 엔티티가 영속화되며 영속성 컨텍스트에서 관리
+        em.flush(); // SEQUENCE 전략은 insert 가 쓰기지연되므로 detach 전에 insert 를 먼저 보낸다. (detach 시 쓰기지연 SQL 저장소의 insert 도 제거됨)
         em.detach(person); // 엔티티를 준영속 상태로 변환
         person.changeName("두식이"); // flush 시 업데이트가 일어나기를 기대하지만 준영속이기에 되지 않을 것
 
@@ -160,7 +161,7 @@ public class PersistenceContextTests {
         tx.begin();
 
         Person person = Person.builder()
-                .idNumber("201700000")
+                .idNumber("201700003")
                 .email("zzz@naver.com")
                 .name("홍길동")
                 .rank(SchoolRank.STUDENT)
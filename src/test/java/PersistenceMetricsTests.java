@@ -0,0 +1,174 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.stats.MetricsSnapshot;
+import support.stats.PersistenceMetrics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import javax.management.MBeanServer;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+/*
+통계(Statistics) 예시
+JMX 노출 예시
+ */
+public class PersistenceMetricsTests {
+    private static EntityManagerFactory emf;
+    private static PersistenceMetrics metrics;
+    private static Long schoolId;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2");
+        metrics = PersistenceMetrics.register(emf, "PersistenceMetricsTests");
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name("떡잎유치원")
+                .build();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        school.addClass(tiger);
+        for(int i = 0 ; i < 30 ; i++) {
+            tiger.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("tiger반 이름" + i)
+                    .build());
+        }
+        em.persist(school); // 영속성전이에 의해 연관된 엔티티도 persist
+        tx.commit();
+        em.close();
+        schoolId = school.getId();
+    }
+    @AfterClass
+    public static void afterClass() {
+        metrics.close();
+        emf.close();
+    }
+    @Before
+    public void before() {
+        metrics.reset();
+        emf.getCache().evictAll();
+    }
+
+    @Test
+    public void 쿼리_엔티티_통계_스냅샷() {
+        EntityManager em = emf.createEntityManager();
+        String query = "select p from Person p where p.name like :name";
+        for (int i = 0; i < 5; i++) {
+            em.createQuery(query, Person.class)
+                    .setParameter("name", "%" + i)
+                    .getResultList();
+        }
+        List<Person> personList = em.createQuery("select p from Person p", Person.class).getResultList();
+        personList.get(0).getMyClass().getName(); // 프록시 초기화는 load, fetch 로 집계
+        em.close();
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(6, snapshot.queryExecutionCount());
+        MetricsSnapshot.Latency latency = sqlLatency(snapshot, " like "); // SQL 별로 기록된다.
+        Assert.assertEquals(5, latency.count());
+        Assert.assertTrue(latency.p50() > 0); // 1ms 미만인 쿼리도 µs 로 기록된다. (기본 통계는 0ms)
+        Assert.assertTrue(latency.p99() <= latency.max());
+        Assert.assertEquals(30, snapshot.entities().get(Person.class.getName()).loads());
+        Assert.assertEquals(1, snapshot.entities().get(SchoolClass.class.getName()).loads());
+        Assert.assertEquals(1, snapshot.entities().get(SchoolClass.class.getName()).fetches());
+    }
+
+    @Test
+    public void 쿼리별_히스토그램은_query_max_size_개까지_둔다() {
+        EntityManagerFactory boundedEmf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:metrics-bounded",
+                "hibernate.statistics.query_max_size", "10",
+                "hibernate.cache.use_second_level_cache", "false", // 닫을 때 emf 와 같이 쓰는 캐시 매니저를 닫지 않게
+                "hibernate.cache.use_query_cache", "false",
+                "hibernate.show_sql", "false",
+                "hibernate.use_sql_comments", "false"));
+        try (PersistenceMetrics boundedMetrics = PersistenceMetrics.register(boundedEmf, "PersistenceMetricsTests-bounded")) {
+            EntityManager em = boundedEmf.createEntityManager();
+            for (int i = 0; i < 100; i++) {
+                em.createQuery("select p from Person p where p.id = " + i, Person.class).getResultList(); // 값을 이어붙여 매번 다른 HQL
+            }
+            em.close();
+
+            int queries = boundedMetrics.snapshot().queries().size();
+            Assert.assertTrue(String.valueOf(queries), queries > 0 && queries <= 10);
+        } finally {
+            boundedEmf.close();
+        }
+    }
+
+    @Test
+    public void 캐시_적중률과_flush_시간() {
+        for (int i = 0; i < 2; i++) {
+            EntityManager em = emf.createEntityManager();
+            EntityTransaction tx = em.getTransaction();
+            tx.begin();
+            School school = em.find(School.class, schoolId); // 두번째는 2차 캐시 적중
+            school.getClassList().get(0).changeName("호랑이반" + i); // 커밋 시 flush 에서 더티체킹
+            tx.commit();
+            em.close();
+        }
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertEquals(1, snapshot.cacheRegions().get("school").hits());
+        Assert.assertEquals(1, snapshot.cacheRegions().get("school").misses());
+        Assert.assertEquals(0.5, snapshot.cacheRegions().get("school").hitRatio(), 0.001);
+        Assert.assertEquals(2, snapshot.flush().count());
+        Assert.assertEquals(2, snapshot.entities().get(SchoolClass.class.getName()).updates());
+    }
+
+    @Test
+    public void 배치로_실행한_statement_는_다음_쿼리에_기록하지_않는다() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        for (Person person : em.createQuery("select p from Person p", Person.class).getResultList()) {
+            person.changeName(person.getName() + "!"); // 커밋 시 update 를 batch 로 실행
+        }
+        tx.commit();
+        em.createQuery("select c from SchoolClass c", SchoolClass.class).getResultList();
+        em.close();
+
+        MetricsSnapshot snapshot = metrics.snapshot();
+        Assert.assertTrue(snapshot.queries().keySet().stream().noneMatch(sql -> sql.startsWith("update")));
+        Assert.assertEquals(1, sqlLatency(snapshot, "from school_class").count());
+    }
+
+    @Test
+    public void JMX_조회() throws Exception {
+        EntityManager em = emf.createEntityManager();
+        em.createQuery("select c from SchoolClass c", SchoolClass.class).getResultList();
+        em.close();
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        Assert.assertTrue(mBeanServer.isRegistered(metrics.getObjectName()));
+        Assert.assertEquals(1L, mBeanServer.getAttribute(metrics.getObjectName(), "QueryExecutionCount"));
+        Assert.assertNotNull(mBeanServer.getAttribute(metrics.getObjectName(), "EntityLoadCounts"));
+        Assert.assertNotNull(mBeanServer.getAttribute(metrics.getObjectName(), "QueryLatencies"));
+    }
+
+    private static MetricsSnapshot.Latency sqlLatency(MetricsSnapshot snapshot, String sqlPart) {
+        List<MetricsSnapshot.Latency> latencies = snapshot.queries().entrySet().stream()
+                .filter(entry -> entry.getKey().contains(sqlPart))
+                .map(Map.Entry::getValue)
+                .toList();
+        Assert.assertEquals(snapshot.queries().keySet().toString(), 1, latencies.size());
+        return latencies.get(0);
+    }
+}
@@ -0,0 +1,152 @@
+import domain.Person;
+import domain.QPerson;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.PersonBulkUpdater;
+import support.querycount.QueryCounter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.List;
+
+/*
+벌크 update 예시 (DirtyCheckingTests 와 비교)
+ */
+public class PersonBulkUpdaterTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2");
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 반_전체_rank_변경은_update_1번() {
+        Long tigerId = persistClass("호랑이반", "호랑이");
+        Long rabbitId = persistClass("토끼반", "토끼");
+
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        long updated = new PersonBulkUpdater(em).changeRank(tigerId, SchoolRank.STUDENT, SchoolRank.STAFF);
+        tx.commit();
+        em.close();
+
+        Assert.assertEquals(5, updated);
+        counter.assertQueryCount(1); // 조회 없이 update 1번
+        Assert.assertEquals(List.of("update student set rank=?,version=(version+cast(? as bigint)) where school_class=? and rank=?"),
+                List.copyOf(counter.getCountsByShape().keySet()));
+        Assert.assertEquals(List.of(SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF), ranks(tigerId));
+        Assert.assertEquals(SchoolRank.STUDENT, ranks(rabbitId).get(0)); // 다른 반은 그대로
+    }
+
+    @Test
+    public void 영속성_컨텍스트의_이전_값이_조회되지_않는다() {
+        Long classId = persistClass("기린반", "기린");
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        List<Person> before = em.createQuery("select p from Person p where p.myClass.id = :classId order by p.id", Person.class)
+                .setParameter("classId", classId)
+                .getResultList();
+        before.get(5).changeName("기린 반장"); // 쓰기 지연된 변경은 벌크 update 전에 flush 된다.
+
+        new PersonBulkUpdater(em).changeRank(classId, SchoolRank.STUDENT, SchoolRank.STAFF);
+
+        Assert.assertTrue(em.contains(before.get(0))); // 영속 상태 그대로 변경된 값으로 refresh
+        Assert.assertEquals(SchoolRank.STAFF, before.get(0).getRank());
+        Assert.assertSame(before.get(0), em.find(Person.class, before.get(0).getId()));
+        Assert.assertEquals("기린 반장", before.get(5).getName());
+        Assert.assertTrue(em.contains(em.find(SchoolClass.class, classId))); // Person 외 엔티티는 그대로
+        tx.commit();
+        em.close();
+    }
+
+    @Test
+    public void 로딩한_personList_가_있어도_같은_트랜잭션에서_커밋된다() {
+        Long classId = persistClass("코끼리반", "코끼리");
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        SchoolClass schoolClass = em.find(SchoolClass.class, classId);
+        List<Person> personList = schoolClass.getPersonList();
+        Assert.assertEquals(6, personList.size()); // 지연로딩 컬렉션 초기화
+
+        new PersonBulkUpdater(em).changeRank(classId, SchoolRank.STUDENT, SchoolRank.STAFF);
+
+        Assert.assertTrue(personList.stream().allMatch(person -> person.getRank() == SchoolRank.STAFF)); // 컬렉션의 Person 도 변경된 값
+        tx.commit(); // 컬렉션의 Person 이 영속 상태이므로 PERSIST 영속성 전이가 실패하지 않는다.
+        em.close();
+
+        Assert.assertEquals(List.of(SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF, SchoolRank.STAFF), ranks(classId));
+    }
+
+    @Test
+    public void 임의의_컬럼_변경() {
+        Long classId = persistClass("사자반", "사자");
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        QPerson p = QPerson.person;
+        long updated = new PersonBulkUpdater(em).set(p.email, "lion@naver.com", p.myClass.id.eq(classId), p.name.startsWith("사자 학생"));
+        tx.commit();
+        em.close();
+
+        Assert.assertEquals(5, updated);
+        em = emf.createEntityManager();
+        Long count = em.createQuery("select count(p) from Person p where p.email = 'lion@naver.com'", Long.class)
+                .getSingleResult();
+        Assert.assertEquals(5L, count.longValue());
+        em.close();
+    }
+
+    /**
+     * 학생 5명, 선생님 1명
+     */
+    private static Long persistClass(String name, String personPrefix) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        SchoolClass schoolClass = SchoolClass.builder()
+                .name(name)
+                .build();
+        for (int i = 0; i < 5; i++) {
+            schoolClass.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .name(personPrefix + " 학생" + i)
+                    .build());
+        }
+        schoolClass.addPerson(Person.builder()
+                .rank(SchoolRank.STAFF)
+                .name(personPrefix + " 선생님")
+                .build());
+        em.persist(schoolClass);
+        tx.commit();
+        em.close();
+        return schoolClass.getId();
+    }
+
+    private static List<SchoolRank> ranks(Long classId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select p.rank from Person p where p.myClass.id = :classId order by p.id", SchoolRank.class)
+                    .setParameter("classId", classId)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+}
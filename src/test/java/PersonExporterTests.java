@@ -0,0 +1,177 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.PersonExporter;
+import service.RosterImporter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/*
+ScrollableResults 내보내기 예시
+ */
+public class PersonExporterTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        // 대량 insert 시 sql 출력만으로도 한참 걸리므로 끈다.
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of("hibernate.show_sql", "false"));
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void csvExport() {
+        // given
+        School school = School.builder()
+                .name("떡잎유치원")
+                .build();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        SchoolClass rabbit = SchoolClass.builder()
+                .name("토끼반")
+                .build();
+        tiger.addPerson(Person.builder().idNumber("1").name("짱구").email("a@naver.com").rank(SchoolRank.STUDENT).build());
+        tiger.addPerson(Person.builder().idNumber("2").name("철수").rank(SchoolRank.STUDENT).build());
+        rabbit.addPerson(Person.builder().idNumber("3").name("채성아").email("c@naver.com").rank(SchoolRank.STAFF).build());
+        school.addClass(tiger);
+        school.addClass(rabbit);
+        persist(school); // 영속성전이 순서대로 id 가 정해진다. (호랑이반 -> 토끼반)
+        persist(School.builder().name("다른유치원").build());
+
+        // when
+        StringWriter csv = new StringWriter();
+        PersonExporter.ExportResult result = new PersonExporter(emf, 2, 10).exportSchool(school.getId(), PersonExporter.csvWriter(csv));
+
+        // then
+        Assert.assertEquals(3, result.rows());
+        Assert.assertEquals(1, result.clears());
+        Assert.assertEquals("idNumber,name,email,rank\n" +
+                "1,짱구,a@naver.com,STUDENT\n" +
+                "2,철수,,STUDENT\n" +
+                "3,채성아,c@naver.com,STAFF\n", csv.toString());
+
+        // 내보낸 CSV 는 다시 가져올 수 있다.
+        Iterator<Person> rows = RosterImporter.csvRows(new StringReader(csv.toString()));
+        Assert.assertEquals("채성아", next(rows, 3).getName());
+    }
+
+    @Test
+    public void 쉼표와_따옴표가_들어간_값도_그대로_다시_가져온다() {
+        // given
+        School school = School.builder().name("해바라기유치원").build();
+        SchoolClass schoolClass = SchoolClass.builder().name("장미반").build();
+        schoolClass.addPerson(Person.builder().idNumber("11").name("신, 짱구").email("a@naver.com").rank(SchoolRank.STUDENT).build());
+        schoolClass.addPerson(Person.builder().idNumber("12").name("\"부리부리\" 대마왕").rank(SchoolRank.STAFF).build());
+        schoolClass.addPerson(Person.builder().idNumber("13").name("봉미선\n(엄마)").email("b@naver.com").rank(SchoolRank.STAFF).build());
+        school.addClass(schoolClass);
+        persist(school);
+
+        // when
+        StringWriter csv = new StringWriter();
+        new PersonExporter(emf, 10, 10).exportSchool(school.getId(), PersonExporter.csvWriter(csv));
+
+        // then
+        Assert.assertEquals("idNumber,name,email,rank\n" +
+                "11,\"신, 짱구\",a@naver.com,STUDENT\n" +
+                "12,\"\"\"부리부리\"\" 대마왕\",,STAFF\n" +
+                "13,\"봉미선\n(엄마)\",b@naver.com,STAFF\n", csv.toString());
+        List<Person> imported = new ArrayList<>();
+        RosterImporter.csvRows(new StringReader(csv.toString())).forEachRemaining(imported::add);
+        Assert.assertEquals(List.of("신, 짱구", "\"부리부리\" 대마왕", "봉미선\n(엄마)"), imported.stream().map(Person::getName).toList());
+        Assert.assertEquals(Arrays.asList("a@naver.com", null, "b@naver.com"), imported.stream().map(Person::getEmail).toList());
+        Assert.assertEquals(List.of(SchoolRank.STUDENT, SchoolRank.STAFF, SchoolRank.STAFF), imported.stream().map(Person::getRank).toList());
+    }
+
+    @Test
+    public void largeExportRunsInBoundedMemory() {
+        int total = 100_000;
+        int clearEvery = 1000;
+        School school = School.builder()
+                .name("대형유치원")
+                .build();
+        SchoolClass schoolClass = SchoolClass.builder()
+                .name("대형반")
+                .build();
+        school.addClass(schoolClass);
+        persist(school);
+        new RosterImporter(emf, 10_000).importPersons(new Iterator<>() {
+            private int i = 0;
+            @Override
+            public boolean hasNext() {
+                return i < total;
+            }
+            @Override
+            public Person next() {
+                return Person.builder()
+                        .rank(SchoolRank.STUDENT)
+                        .name("export 이름" + i++)
+                        .build();
+            }
+        }, schoolClass.getId());
+
+        // clearEvery 건마다 한 건씩 약한 참조로 기록해두고, 중간에 GC 후 살아있는 엔티티를 센다.
+        List<WeakReference<Person>> sampled = new ArrayList<>();
+        int[] aliveAtHalf = new int[1];
+        long[] count = new long[1];
+        PersonExporter.ExportResult result = new PersonExporter(emf, clearEvery, 500).exportSchool(school.getId(), person -> {
+            if (count[0] % clearEvery == 0) {
+                sampled.add(new WeakReference<>(person));
+            }
+            if (count[0]++ == total / 2) {
+                aliveAtHalf[0] = alive(sampled);
+                for (int i = 0; i < 10 && aliveAtHalf[0] > 1; i++) {
+                    System.gc();
+                    aliveAtHalf[0] = alive(sampled);
+                }
+            }
+        });
+        System.out.printf("rows: %d, clears: %d, rows/sec: %.0f%n", result.rows(), result.clears(), result.rowsPerSecond());
+
+        Assert.assertEquals(total, result.rows());
+        Assert.assertEquals(total / clearEvery, result.clears());
+        // 지금 처리 중인 chunk 의 엔티티만 메모리에 남아있고 이전 chunk 는 모두 GC 되었다.
+        Assert.assertEquals(1, aliveAtHalf[0]);
+    }
+
+    private static int alive(List<WeakReference<Person>> references) {
+        return (int) references.stream()
+                .filter(reference -> reference.get() != null)
+                .count();
+    }
+
+    private static Person next(Iterator<Person> rows, int n) {
+        Person person = null;
+        for (int i = 0; i < n; i++) {
+            person = rows.next();
+        }
+        return person;
+    }
+
+    private static void persist(Object entity) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        em.persist(entity);
+        tx.commit();
+        em.close();
+    }
+}
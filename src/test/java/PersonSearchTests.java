@@ -0,0 +1,292 @@
+import domain.Person;
+import domain.PersonNgram;
+import domain.QPerson;
+import domain.School;
+import domain.SchoolClass;
+import domain.query.PersonSearchQuery;
+import domain.type.SchoolRank;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.PersonBulkUpdater;
+import service.RosterImporter;
+import service.SchoolPurgeService;
+import support.search.Ngrams;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+Person name, email 부분 검색 (n-gram 색인)
+결과는 항상 like '%키워드%' 전체 조회와 같아야 한다. (@ 가 없는 email 검색어는 local part 에서만 찾으므로 like '%키워드%@%')
+ */
+public class PersonSearchTests {
+    private static final String[] NAMES = {"짱구", "짱아", "철수", "훈이", "맹구", "유리"};
+    private static EntityManagerFactory emf;
+    private static Long classId;
+    private static int idNumber = 2020_00000;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:search", // 다른 테스트와 DB 분리
+                "hibernate.show_sql", "false",
+                "hibernate.use_sql_comments", "false"));
+
+        // given 학생 600명, 이름은 "짱구12" 처럼 흔한 이름 + 번호
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder().name("떡잎학교").build();
+        SchoolClass schoolClass = SchoolClass.builder().name("해바라기반").build();
+        for (int i = 0; i < 600; i++) {
+            schoolClass.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .idNumber(String.valueOf(2017_00000 + i))
+                    .name(NAMES[i % NAMES.length] + i)
+                    .email(i % 2 == 0 ? "user_" + i + "@Naver.com" : "user" + i + "@daum.net")
+                    .build());
+        }
+        school.addClass(schoolClass);
+        em.persist(school);
+        tx.commit();
+        em.close();
+        classId = schoolClass.getId();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 검색결과는_like_조회와_같다() {
+        EntityManager em = emf.createEntityManager();
+        PersonSearchQuery query = new PersonSearchQuery(em);
+        for (String keyword : List.of("짱", "짱구", "구1", "철수59", "1", "00", "없는이름", "구짱")) {
+            Assert.assertEquals(keyword, likeScan(em, "name", keyword), query.findIdsByName(keyword, Integer.MAX_VALUE));
+        }
+        for (String keyword : List.of("er1", "USER_1", "r_", "없는메일")) {
+            Assert.assertEquals(keyword, likeScan(em, "email", keyword, "%@%"), query.findIdsByEmail(keyword, Integer.MAX_VALUE));
+        }
+        for (String keyword : List.of("user_10@naver", "1@DAUM.net", "@naver", "@")) {
+            Assert.assertEquals(keyword, likeScan(em, "email", keyword), query.findIdsByEmail(keyword, Integer.MAX_VALUE));
+        }
+        em.close();
+    }
+
+    @Test
+    public void 골뱅이가_없는_이메일_검색어는_도메인에서_찾지_않는다() {
+        EntityManager em = emf.createEntityManager();
+        PersonSearchQuery query = new PersonSearchQuery(em);
+
+        Assert.assertTrue(query.findIdsByEmail("naver", Integer.MAX_VALUE).isEmpty());
+        Assert.assertEquals(300, query.findIdsByEmail("@naver", Integer.MAX_VALUE).size()); // 도메인은 @ 와 함께 검색 (like 조회)
+        em.close();
+    }
+
+    @Test
+    public void 검색어의_like_특수문자는_그대로_비교한다() {
+        EntityManager em = emf.createEntityManager();
+        PersonSearchQuery query = new PersonSearchQuery(em);
+
+        List<Long> ids = query.findIdsByEmail("r_", Integer.MAX_VALUE);
+
+        Assert.assertEquals(300, ids.size()); // _ 가 아무 글자로 비교되면 "user1" 도 나온다.
+        Assert.assertTrue(query.findIdsByEmail("%", Integer.MAX_VALUE).isEmpty());
+        em.close();
+    }
+
+    @Test
+    public void 최대건수까지만_id_순으로_조회한다() {
+        EntityManager em = emf.createEntityManager();
+        PersonSearchQuery query = new PersonSearchQuery(em);
+
+        Assert.assertEquals(likeScan(em, "name", "짱구").subList(0, 5), query.findIdsByName("짱구", 5));
+        Assert.assertEquals(likeScan(em, "name", "짱").subList(0, 5), query.findIdsByName("짱", 5)); // 1글자는 like 조회
+        em.close();
+    }
+
+    @Test
+    public void 조회한_Person_은_배치로_로딩한다() {
+        EntityManager em = emf.createEntityManager();
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Person> persons = new PersonSearchQuery(em).findByName("짱", 150);
+
+        Assert.assertEquals(150, persons.size());
+        Assert.assertTrue(persons.stream().allMatch(p -> p.getName().startsWith("짱")));
+        Assert.assertEquals(3, statistics.getPrepareStatementCount()); // 검색 1번, Person 100개씩 2번 (gram 별 건수는 JDBC 로 직접 세어 통계에 없다)
+        em.close();
+    }
+
+    @Test
+    public void 이름을_바꾸거나_삭제하면_색인도_바뀐다() {
+        Long id = persist("봉미선", "misun@naver.com");
+        Assert.assertEquals(List.of(id), findIdsByName("미선"));
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        em.find(Person.class, id).changeName("신형만");
+        tx.commit();
+        em.close();
+        Assert.assertTrue(findIdsByName("미선").isEmpty());
+        Assert.assertEquals(List.of(id), findIdsByName("형만"));
+        Assert.assertEquals(expectedNgramCount("신형만", "misun@naver.com"), ngramCount(id)); // 이전 색인은 지운다.
+
+        em = emf.createEntityManager();
+        tx = em.getTransaction();
+        tx.begin();
+        em.remove(em.find(Person.class, id));
+        tx.commit();
+        em.close();
+        Assert.assertTrue(findIdsByName("형만").isEmpty());
+        Assert.assertEquals(0, ngramCount(id));
+    }
+
+    @Test
+    public void 색인은_flush_할_때_쓰고_롤백하면_함께_롤백된다() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        Person person = Person.builder().rank(SchoolRank.STUDENT).idNumber(String.valueOf(idNumber++)).name("흰둥이").email("white@naver.com").build();
+        em.persist(person);
+        person.changeName("흰둥이야"); // 같은 flush 의 insert, update 는 마지막 값으로 한번만 색인
+        Assert.assertEquals(List.of(person.getId()), new PersonSearchQuery(em).findIdsByName("흰둥", 10)); // 검색 전 자동 flush 로 색인도 쓴다.
+        Assert.assertEquals(expectedNgramCount("흰둥이야", "white@naver.com"), em.createQuery("select count(g) from PersonNgram g where g.key.personId = :personId", Long.class)
+                .setParameter("personId", person.getId())
+                .getSingleResult().longValue());
+        tx.rollback();
+        em.close();
+
+        Assert.assertEquals(0, ngramCount(person.getId()));
+        Assert.assertTrue(findIdsByName("흰둥").isEmpty());
+    }
+
+    @Test
+    public void 한_트랜잭션에서_여러번_flush_해도_마지막_값으로_색인된다() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        Person person = Person.builder().rank(SchoolRank.STUDENT).idNumber(String.valueOf(idNumber++)).name("시로").email("shiro@naver.com").build();
+        em.persist(person);
+        em.flush();
+        for (String name : List.of("시로1", "시로2", "시로3")) {
+            person.changeName(name);
+            em.flush(); // 첫 flush 뒤에도 세션의 색인 대기열은 커밋까지 남아 다음 변경을 받는다.
+        }
+        tx.commit();
+        em.close();
+
+        Assert.assertEquals(List.of(person.getId()), findIdsByName("로3"));
+        Assert.assertTrue(findIdsByName("로2").isEmpty());
+        Assert.assertEquals(expectedNgramCount("시로3", "shiro@naver.com"), ngramCount(person.getId()));
+    }
+
+    @Test
+    public void StatelessSession_으로_등록한_Person_도_검색된다() {
+        String csv = "idNumber,name,email,rank\n" +
+                "201800001,나미리,miri@naver.com,STAFF\n" +
+                "201800002,수지,,STUDENT\n" +
+                "201800003,채성아,seonga@naver.com,STAFF\n";
+
+        new RosterImporter(emf, 2).importPersons(RosterImporter.csvRows(new StringReader(csv)), classId);
+
+        Assert.assertEquals(1, findIdsByName("미리").size());
+        Assert.assertEquals(1, findIdsByName("성아").size());
+        EntityManager em = emf.createEntityManager();
+        Assert.assertEquals(1, new PersonSearchQuery(em).findIdsByEmail("seonga@", 10).size());
+        em.close();
+    }
+
+    @Test
+    public void 벌크_update_후에도_검색된다() {
+        Long id = persist("액션가면", "action@naver.com");
+
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        long updated = new PersonBulkUpdater(em).set(QPerson.person.name, "부리부리", QPerson.person.id.eq(id));
+        tx.commit();
+        em.close();
+
+        Assert.assertEquals(1, updated);
+        Assert.assertTrue(findIdsByName("액션").isEmpty());
+        Assert.assertEquals(List.of(id), findIdsByName("부리"));
+    }
+
+    @Test
+    public void 학교를_삭제하면_색인도_삭제된다() {
+        // given 다른 학교
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder().name("액션유치원").build();
+        SchoolClass schoolClass = SchoolClass.builder().name("장미반").build();
+        Person person = Person.builder().rank(SchoolRank.STUDENT).idNumber("201900001").name("보람").email("boram@naver.com").build();
+        schoolClass.addPerson(person);
+        school.addClass(schoolClass);
+        em.persist(school);
+        tx.commit();
+        em.close();
+        Assert.assertTrue(ngramCount(person.getId()) > 0);
+
+        new SchoolPurgeService(emf).purge(school.getId());
+
+        Assert.assertEquals(0, ngramCount(person.getId()));
+        Assert.assertTrue(findIdsByName("보람").isEmpty());
+        Assert.assertFalse(findIdsByName("짱구").isEmpty()); // 다른 학교 색인은 남는다.
+    }
+
+    private static Long persist(String name, String email) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        Person person = Person.builder().rank(SchoolRank.STUDENT).idNumber(String.valueOf(idNumber++)).name(name).email(email).build();
+        em.find(SchoolClass.class, classId).addPerson(person);
+        em.persist(person);
+        tx.commit();
+        em.close();
+        return person.getId();
+    }
+
+    private static List<Long> findIdsByName(String keyword) {
+        EntityManager em = emf.createEntityManager();
+        List<Long> ids = new PersonSearchQuery(em).findIdsByName(keyword, Integer.MAX_VALUE);
+        em.close();
+        return ids;
+    }
+
+    private static List<Long> likeScan(EntityManager em, String column, String keyword) {
+        return likeScan(em, column, keyword, "%");
+    }
+
+    private static List<Long> likeScan(EntityManager em, String column, String keyword, String suffix) {
+        return em.createQuery("select p.id from Person p where lower(p." + column + ") like :pattern escape '!' order by p.id", Long.class)
+                .setParameter("pattern", "%" + keyword.toLowerCase(Locale.ROOT).replace("_", "!_") + suffix)
+                .getResultList();
+    }
+
+    private static long ngramCount(Long personId) {
+        EntityManager em = emf.createEntityManager();
+        long count = em.createQuery("select count(g) from PersonNgram g where g.key.personId = :personId", Long.class)
+                .setParameter("personId", personId)
+                .getSingleResult();
+        em.close();
+        return count;
+    }
+
+    private static long expectedNgramCount(String name, String email) {
+        return Ngrams.grams(name, PersonNgram.Field.NAME.getGramLength()).size()
+                + Ngrams.grams(Ngrams.localPart(email), PersonNgram.Field.EMAIL.getGramLength()).size();
+    }
+}
@@ -0,0 +1,113 @@
+import domain.Person;
+import domain.SchoolClass;
+import domain.query.PersonSummary;
+import domain.query.SchoolClassSummary;
+import domain.query.SummaryQuery;
+import domain.type.SchoolRank;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.querycount.QueryCounter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.List;
+
+/*
+DTO(record) 프로젝션 예시
+ */
+public class ProjectionTests {
+    private static EntityManagerFactory emf;
+    private static Long tigerId;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2");
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("프로젝션반")
+                .build();
+        for(int i = 0 ; i < 3 ; i++) {
+            tiger.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("프로젝션 이름" + i)
+                    .build());
+        }
+        em.persist(tiger);
+        em.persist(SchoolClass.builder().name("빈반").build());
+        em.persist(Person.builder().name("프로젝션 반없음").build());
+        em.persist(Person.builder().name("50%할인").build());
+        em.persist(Person.builder().name("50원할인").build());
+        em.persist(Person.builder().name("a_b").build());
+        em.persist(Person.builder().name("axb").build());
+        tx.commit();
+        em.close();
+        tigerId = tiger.getId();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 필요한_컬럼만_조회하고_영속성_컨텍스트에_올리지_않는다() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<PersonSummary> personList = new SummaryQuery(em).findPersons("프로젝션");
+
+        Assert.assertEquals(4, personList.size());
+        Assert.assertEquals(new PersonSummary(personList.get(0).id(), "프로젝션 이름0", "0@naver.com", "프로젝션반"), personList.get(0));
+        Assert.assertNull(personList.get(3).className()); // 반 없는 사람은 left join
+        Assert.assertEquals(0, em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities());
+
+        // select 절에는 생성자 파라미터 4개만
+        counter.assertQueryCount(1);
+        String sql = counter.getCountsByShape().keySet().iterator().next();
+        Assert.assertEquals("select p1_0.id,p1_0.name,p1_0.email,m1_0.name from student p1_0 " +
+                "left join school_class m1_0 on m1_0.id=p1_0.school_class " +
+                "where p1_0.name like ? escape ? order by p1_0.id", sql);
+        em.close();
+    }
+
+    @Test
+    public void jpql_과_querydsl_결과가_같다() {
+        EntityManager em = emf.createEntityManager();
+        SummaryQuery query = new SummaryQuery(em);
+
+        Assert.assertEquals(query.findPersons("프로젝션"), query.findPersonsWithQuerydsl("프로젝션"));
+        Assert.assertEquals(query.findClasses(), query.findClassesWithQuerydsl());
+        Assert.assertEquals(0, em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getNumberOfManagedEntities());
+        em.close();
+    }
+
+    @Test
+    public void 이름_앞부분의_퍼센트_밑줄은_글자_그대로_비교한다() {
+        EntityManager em = emf.createEntityManager();
+        SummaryQuery query = new SummaryQuery(em);
+
+        Assert.assertEquals(List.of("50%할인"), query.findPersons("50%").stream().map(PersonSummary::name).toList());
+        Assert.assertEquals(List.of("a_b"), query.findPersons("a_").stream().map(PersonSummary::name).toList());
+        Assert.assertEquals(query.findPersons("50%"), query.findPersonsWithQuerydsl("50%"));
+        Assert.assertEquals(query.findPersons("a_"), query.findPersonsWithQuerydsl("a_"));
+        em.close();
+    }
+
+    @Test
+    public void 반_목록은_학생_수만_조회한다() {
+        EntityManager em = emf.createEntityManager();
+        List<SchoolClassSummary> classList = new SummaryQuery(em).findClasses();
+
+        Assert.assertTrue(classList.contains(new SchoolClassSummary(tigerId, "프로젝션반", 3L)));
+        Assert.assertTrue(classList.stream()
+                .anyMatch(schoolClass -> schoolClass.name().equals("빈반") && schoolClass.personCount() == 0));
+        em.close();
+    }
+}
@@ -0,0 +1,149 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.querycount.QueryCounter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.List;
+import java.util.Map;
+
+/*
+N + 1 자동 검출 예시 (FetchJoinTests 의 N + 1 예시를 쿼리 수로 검증)
+ */
+public class QueryCountTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2");
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name("떡잎유치원")
+                .build();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        SchoolClass rabbit = SchoolClass.builder()
+                .name("토끼반")
+                .build();
+        school.addClass(tiger);
+        school.addClass(rabbit);
+        for(int i = 0 ; i < 30 ; i++) {
+            tiger.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("tiger반 이름" + i)
+                    .build());
+            rabbit.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("rabbit반 이름" + i)
+                    .build());
+        }
+        em.persist(school); // 영속성전이에 의해 연관된 엔티티도 persist
+        tx.commit();
+        em.close();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 프록시_지연로딩은_배치로_묶인다() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        emf.getCache().evictAll(); // 2차 캐시에 있으면 쿼리가 나가지 않으므로 비운다.
+
+        List<Person> personList = em.createQuery("select p from Person p", Person.class).getResultList();
+        for (Person person : personList) {
+            person.getMyClass().getName(); // 첫 반 프록시 초기화 때 호랑이반 토끼반을 in 절로 함께 조회 (SchoolClass @BatchSize)
+        }
+
+        counter.assertQueryCount(2);
+        counter.assertNoNPlusOne();
+        em.close();
+    }
+
+    @Test
+    public void 컬렉션_지연로딩은_in_절로_묶인다() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+
+        List<SchoolClass> classList = em.createQuery("select c from SchoolClass c", SchoolClass.class).getResultList();
+        for (SchoolClass schoolClass : classList) {
+            schoolClass.getPersonList().size(); // 첫 반의 학생 목록 초기화 때 다른 반의 학생 목록도 in 절로 함께 조회 (@BatchSize)
+        }
+
+        counter.assertQueryCount(2);
+        Assert.assertEquals(Map.of("domain.SchoolClass.personList", 1), counter.getLazyLoadCounts());
+        em.close();
+    }
+
+    @Test
+    public void 프록시를_하나씩_초기화하면_N_PLUS_1_검출() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        emf.getCache().evictAll();
+
+        List<Long> classIds = em.createQuery("select c.id from SchoolClass c", Long.class).getResultList();
+        for (Long classId : classIds) {
+            em.getReference(SchoolClass.class, classId).getName(); // 초기화되지 않은 프록시가 하나뿐이라 배치로 묶이지 않는다.
+        }
+
+        counter.assertQueryCount(3);
+        Assert.assertEquals(Map.of("domain.SchoolClass", 2), counter.getNPlusOneSuspects());
+        // 같은 모양의 SQL 로 묶인다.
+        Assert.assertEquals(2, counter.getCountsByShape().values().stream().filter(count -> count == 2).findFirst().orElseThrow().intValue());
+        try {
+            counter.assertNoNPlusOne();
+            Assert.fail();
+        } catch (AssertionError e) {
+            System.out.println(e.getMessage());
+        }
+        em.close();
+    }
+
+    @Test
+    public void 페치조인은_한방쿼리() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+
+        List<Person> personList = em.createQuery("select p from Person p inner join fetch p.myClass c", Person.class).getResultList();
+        for (Person person : personList) {
+            person.getMyClass().getName();
+        }
+
+        counter.assertMaxQueries(1);
+        counter.assertNoNPlusOne();
+        em.close();
+    }
+
+    @Test(expected = AssertionError.class)
+    public void 최대쿼리수_초과시_실패() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        em.createQuery("select c from SchoolClass c", SchoolClass.class).getResultList()
+                .forEach(schoolClass -> schoolClass.getPersonList().size());
+        counter.assertMaxQueries(1);
+    }
+
+    @Test
+    public void SQL_모양_정규화() {
+        QueryCounter counter = new QueryCounter();
+        counter.inspect("/* load */ select * from student where id in (1, 2, 3) and name = 'a'");
+        counter.inspect("select *   from student where id in (4,5) and name = 'b''c'");
+        Assert.assertEquals(Map.of("select * from student where id in (?) and name = ?", 2), counter.getCountsByShape());
+    }
+}
@@ -0,0 +1,151 @@
+import domain.Person;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.hibernate.SessionFactory;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.querycount.QueryCounter;
+import support.stats.MetricsSnapshot;
+import support.stats.PersistenceMetrics;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/*
+쿼리 계획 캐시 예시 (hibernate.query.plan_cache_max_size)
+named query 예시
+ */
+public class QueryPlanCacheTests {
+    private static EntityManagerFactory emf;
+    private static PersistenceMetrics metrics;
+    private static Long classId;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:plancache", // 다른 테스트와 DB 분리
+                "hibernate.show_sql", "false"));
+        metrics = PersistenceMetrics.register(emf, "QueryPlanCacheTests");
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        for(int i = 0 ; i < 10 ; i++) {
+            tiger.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .idNumber("2017" + i)
+                    .name("tiger반 이름" + i)
+                    .build());
+        }
+        em.persist(tiger);
+        tx.commit();
+        em.close();
+        classId = tiger.getId();
+    }
+    @AfterClass
+    public static void afterClass() {
+        metrics.close();
+        emf.close();
+    }
+    @Before
+    public void before() {
+        metrics.reset();
+    }
+
+    @Test
+    public void named_query_는_시작시_해석되어_있다() {
+        EntityManager em = emf.createEntityManager();
+        List<Person> personList = em.createNamedQuery("Person.findByClassId", Person.class)
+                .setParameter("classId", classId)
+                .getResultList();
+        Assert.assertEquals(10, personList.size());
+        // 실행마다 HQL 해석(SQM), SQL 변환(쿼리 계획) 2번 캐시를 조회, HQL 해석은 시작 시 검증하며 캐시되어 첫 실행부터 적중
+        Assert.assertEquals(new MetricsSnapshot.CacheCounts(1, 1, 1), metrics.snapshot().queryPlanCache());
+
+        for (int i = 0; i < 3; i++) {
+            em.createNamedQuery("Person.findByClassId", Person.class)
+                    .setParameter("classId", classId + i) // 바인딩 값이 달라도 같은 계획
+                    .getResultList();
+        }
+        Assert.assertEquals(new MetricsSnapshot.CacheCounts(7, 1, 1), metrics.snapshot().queryPlanCache());
+        Assert.assertEquals("20173", em.createNamedQuery("Person.findByIdNumber", Person.class)
+                .setParameter("idNumber", "20173")
+                .getSingleResult()
+                .getIdNumber());
+        em.close();
+    }
+
+    @Test
+    public void 값을_이어붙인_HQL_은_매번_캐시_실패() {
+        EntityManager em = emf.createEntityManager();
+        for (int i = 0; i < 3; i++) {
+            em.createQuery("select p from Person p where p.myClass.id = " + (classId + i), Person.class).getResultList(); // 매번 다른 HQL
+        }
+        Assert.assertEquals(new MetricsSnapshot.CacheCounts(0, 6, 6), metrics.snapshot().queryPlanCache());
+        Assert.assertEquals(6, metrics.getQueryPlanCacheMissCount());
+
+        metrics.reset();
+        for (int i = 0; i < 3; i++) {
+            em.createQuery("select p from Person p where p.myClass.id = :classId", Person.class)
+                    .setParameter("classId", classId + i)
+                    .getResultList(); // 같은 HQL, 처음 1번만 컴파일
+        }
+        Assert.assertEquals(new MetricsSnapshot.CacheCounts(4, 2, 2), metrics.snapshot().queryPlanCache());
+        em.close();
+    }
+
+    @Test
+    public void in_절_파라미터_패딩() {
+        EntityManager em = emf.createEntityManager();
+        List<Long> ids = em.createQuery("select p.id from Person p order by p.id", Long.class).getResultList();
+        em.close();
+
+        // 리스트 크기가 3, 4 이면 모두 파라미터 4개로 같은 SQL (드라이버의 statement 캐시 재사용), 5 이면 8개
+        Assert.assertEquals(inClauseSql(ids.subList(0, 3)), inClauseSql(ids.subList(0, 4)));
+        Assert.assertEquals(4, parameterCount(inClauseSql(ids.subList(0, 3))));
+        Assert.assertEquals(8, parameterCount(inClauseSql(ids.subList(0, 5))));
+    }
+
+    @Test
+    public void 페치조인_named_query() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        List<Person> personList = em.createNamedQuery("Person.findAllWithClass", Person.class).getResultList();
+        for (Person person : personList) {
+            Assert.assertEquals("호랑이반", person.getMyClass().getName());
+        }
+        counter.assertQueryCount(1);
+        em.close();
+    }
+
+    private static String inClauseSql(List<Long> ids) {
+        List<String> sqls = new ArrayList<>();
+        EntityManager em = emf.unwrap(SessionFactory.class).withOptions()
+                .statementInspector(sql -> {
+                    sqls.add(sql);
+                    return sql;
+                })
+                .openSession();
+        List<Person> personList = em.createQuery("select p from Person p where p.id in :ids", Person.class)
+                .setParameter("ids", ids)
+                .getResultList();
+        Assert.assertEquals(ids.size(), personList.size());
+        em.close();
+        return sqls.get(0);
+    }
+
+    private static long parameterCount(String sql) {
+        return sql.chars().filter(c -> c == '?').count();
+    }
+}
@@ -0,0 +1,142 @@
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import domain.Person;
+import domain.QPerson;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.querycount.QueryCounter;
+import support.readonly.ReadOnlyQueries;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.List;
+
+/*
+읽기 전용 쿼리, 읽기 전용 세션 예시
+ */
+public class ReadOnlyQueryTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2");
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        for(int i = 0 ; i < 10 ; i++) {
+            tiger.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("읽기전용 이름" + i)
+                    .build());
+        }
+        em.persist(tiger);
+        tx.commit();
+        em.close();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 읽기_전용_쿼리는_스냅샷을_보관하지_않는다() {
+        EntityManager em = emf.createEntityManager();
+        List<Person> managed = em.createQuery("select p from Person p where p.name like '읽기전용%'", Person.class)
+                .getResultList();
+        Assert.assertEquals(10, managed.size());
+        for (Person person : managed) {
+            Assert.assertNotNull(loadedState(em, person)); // 일반 엔티티는 로딩 시점의 값을 스냅샷으로 보관
+        }
+        em.clear();
+
+        List<Person> readOnly = ReadOnlyQueries.readOnly(em.createQuery("select p from Person p where p.name like '읽기전용%'", Person.class))
+                .getResultList();
+        Assert.assertEquals(10, readOnly.size());
+        for (Person person : readOnly) {
+            Assert.assertTrue(em.unwrap(Session.class).isReadOnly(person));
+            Assert.assertNull(loadedState(em, person)); // 더티체킹용 스냅샷 없음
+        }
+        em.close();
+    }
+
+    @Test
+    public void 읽기_전용_엔티티는_변경해도_update_없음() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        Person person = ReadOnlyQueries.readOnly(new JPAQueryFactory(em)
+                        .selectFrom(QPerson.person)
+                        .where(QPerson.person.name.eq("읽기전용 이름0")))
+                .fetchOne();
+        person.changeName("두식이");
+        tx.commit(); // 더티체킹 대상이 아니므로 update 가 나가지 않는다.
+
+        counter.assertQueryCount(1);
+        em.close();
+        Assert.assertEquals("읽기전용 이름0", findName(person.getId()));
+    }
+
+    @Test
+    public void 읽기_전용_세션은_flush_하지_않는다() {
+        QueryCounter counter = new QueryCounter();
+        EntityManager em = counter.createEntityManager(emf);
+        ReadOnlyQueries.readOnly(em);
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        List<Person> personList = em.createQuery("select p from Person p where p.name like '읽기전용%'", Person.class)
+                .getResultList();
+        personList.forEach(person -> person.changeName("두식이"));
+        em.persist(Person.builder().name("새학생").build()); // sequence 조회만 하고 insert 는 지연
+        em.createQuery("select count(p) from Person p", Long.class).getSingleResult(); // 쿼리 전 자동 flush 없음
+        tx.commit(); // 커밋 시 자동 flush 없음
+
+        Assert.assertFalse(counter.getCountsByShape().keySet().stream()
+                .anyMatch(sql -> sql.startsWith("insert") || sql.startsWith("update")));
+        em.close();
+        Assert.assertEquals("읽기전용 이름1", findName(personList.get(1).getId()));
+    }
+
+    @Test
+    public void 읽기_전용_세션에서_로딩한_엔티티는_모두_읽기_전용() {
+        EntityManager em = ReadOnlyQueries.createEntityManager(emf);
+        Session session = em.unwrap(Session.class);
+        Person person = em.createQuery("select p from Person p where p.name = '읽기전용 이름2'", Person.class)
+                .getSingleResult();
+        SchoolClass schoolClass = person.getMyClass();
+        schoolClass.getName(); // 지연로딩으로 초기화된 엔티티도 읽기 전용
+
+        Assert.assertTrue(session.isDefaultReadOnly());
+        Assert.assertTrue(session.isReadOnly(person));
+        Assert.assertTrue(session.isReadOnly(schoolClass));
+        em.close();
+    }
+
+    private static Object[] loadedState(EntityManager em, Object entity) {
+        return em.unwrap(SessionImplementor.class)
+                .getPersistenceContextInternal()
+                .getEntry(entity)
+                .getLoadedState();
+    }
+
+    private static String findName(Long id) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.find(Person.class, id).getName();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,218 @@
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import domain.Person;
+import domain.QPerson;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.routing.ReplicaRouting;
+import support.routing.ReplicaRoutingConnectionProvider;
+import support.tx.TransactionTemplate;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/*
+읽기 전용 트랜잭션은 replica, 쓰기는 primary (support.routing)
+H2 in-memory DB 두개, StandInReplicator 가 호출될 때마다 primary 전체를 replica 로 복사한다.
+replica 가 뒤처진 상태에서 읽은 값으로 어느 DB 에서 읽었는지 확인한다.
+ */
+public class ReplicaRoutingTests {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica";
+    private static final long MAX_LAG_MILLIS = 500;
+    private static EntityManagerFactory emf;
+    private static ReplicaRoutingConnectionProvider routing;
+    private static StandInReplicator replicator;
+    private static TransactionTemplate tx;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", PRIMARY_URL,
+                "hibernate.connection.provider_class", "support.routing.ReplicaRoutingConnectionProvider",
+                ReplicaRoutingConnectionProvider.REPLICA_URL, REPLICA_URL,
+                ReplicaRoutingConnectionProvider.MAX_LAG, String.valueOf(MAX_LAG_MILLIS),
+                "hibernate.show_sql", "false",
+                "hibernate.use_sql_comments", "false"));
+        routing = ReplicaRoutingConnectionProvider.of(emf);
+        replicator = new StandInReplicator(routing);
+        tx = new TransactionTemplate(emf, 1);
+
+        // given 학생 10명
+        tx.executeWithoutResult(em -> {
+            School school = School.builder().name("떡잎유치원").build();
+            SchoolClass schoolClass = SchoolClass.builder().name("해바라기반").build();
+            for (int i = 0; i < 10; i++) {
+                schoolClass.addPerson(Person.builder()
+                        .rank(SchoolRank.STUDENT)
+                        .name("짱구" + i)
+                        .build());
+            }
+            school.addClass(schoolClass);
+            em.persist(school);
+        });
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+    @Before
+    public void before() {
+        replicator.sync(); // 테스트마다 replica 가 따라잡은 상태에서 시작
+    }
+
+    @Test
+    public void 읽기_전용_트랜잭션은_replica_에서_읽는다() {
+        long count = ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons);
+        writeInOtherThread(); // primary 에만 1명 추가
+
+        long replicaReads = routing.getReplicaReadCount();
+        Assert.assertEquals(count, (long) ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons)); // 아직 복제되지 않음
+        Assert.assertEquals(replicaReads + 1, routing.getReplicaReadCount());
+        Assert.assertEquals(count + 1, (long) tx.execute(ReplicaRoutingTests::countPersons)); // 읽기 전용이 아니면 primary
+
+        replicator.sync();
+        Assert.assertEquals(count + 1, (long) ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons));
+    }
+
+    @Test
+    public void Querydsl_조회도_replica_에서_읽는다() {
+        QPerson person = QPerson.person;
+        long count = ReplicaRouting.readOnly(emf, em -> new JPAQueryFactory(em).select(person.count()).from(person).fetchOne());
+        writeInOtherThread();
+
+        Assert.assertEquals(count, (long) ReplicaRouting.readOnly(emf, em -> new JPAQueryFactory(em)
+                .select(person.count())
+                .from(person)
+                .fetchOne()));
+    }
+
+    @Test
+    public void 자신이_쓴_값은_복제되기_전에도_읽을_수_있다() {
+        long count = ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons);
+        tx.executeWithoutResult(em -> em.persist(newPerson())); // 이 스레드에서 쓰기
+
+        long primaryReads = routing.getPrimaryReadCount();
+        Assert.assertEquals(count + 1, (long) ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons)); // replica 가 뒤처져 primary 에서 읽음
+        Assert.assertEquals(primaryReads + 1, routing.getPrimaryReadCount());
+
+        replicator.sync();
+        long replicaReads = routing.getReplicaReadCount();
+        Assert.assertEquals(count + 1, (long) ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons));
+        Assert.assertEquals(replicaReads + 1, routing.getReplicaReadCount());
+    }
+
+    @Test
+    public void 다른_스레드로_마지막_쓰기_위치를_넘기면_자신이_쓴_값을_읽는다() {
+        long count = ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons);
+        long position = CompletableFuture.supplyAsync(() -> {
+            tx.executeWithoutResult(em -> em.persist(newPerson()));
+            return routing.getLastWritePosition();
+        }).join();
+
+        routing.setLastWritePosition(position); // ex. 세션, 쿠키로 받은 위치
+        Assert.assertEquals(count + 1, (long) ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons));
+    }
+
+    @Test
+    public void replica_가_오래_뒤처지면_primary_에서_읽는다() throws InterruptedException {
+        long count = ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons);
+        writeInOtherThread();
+        Thread.sleep(MAX_LAG_MILLIS + 100); // 복제 지연이 max_lag 를 넘음
+
+        Assert.assertEquals(count + 1, (long) ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons));
+    }
+
+    @Test
+    public void 복제가_멈춰_같은_위치만_알려도_오래_뒤처지면_primary_에서_읽는다() throws InterruptedException {
+        long count = ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons);
+        long position = routing.getReplicaPosition();
+        writeInOtherThread();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_LAG_MILLIS + 100);
+        while (System.nanoTime() < deadline) {
+            routing.replicated(position); // 복제 지연 모니터는 계속 호출하지만 위치는 그대로
+            Thread.sleep(50);
+        }
+
+        Assert.assertEquals(count + 1, (long) ReplicaRouting.readOnly(emf, ReplicaRoutingTests::countPersons));
+    }
+
+    @Test
+    public void 읽기_전용_트랜잭션에서_바꾼_값은_저장되지_않는다() {
+        ReplicaRouting.readOnly(emf, em -> {
+            em.createQuery("select p from Person p", Person.class).getResultList().forEach(p -> p.changeName("바뀐이름"));
+            return null;
+        });
+
+        Assert.assertEquals(Long.valueOf(0), tx.execute(em -> em.createQuery("select count(p) from Person p where p.name = '바뀐이름'", Long.class)
+                .getSingleResult()));
+    }
+
+    private static long countPersons(EntityManager em) {
+        return em.createQuery("select count(p) from Person p", Long.class).getSingleResult();
+    }
+
+    /**
+     * 다른 사용자의 쓰기, 이 스레드의 마지막 쓰기 위치는 그대로
+     */
+    private static void writeInOtherThread() {
+        CompletableFuture.runAsync(() -> tx.executeWithoutResult(em -> em.persist(newPerson()))).join();
+    }
+
+    private static Person newPerson() {
+        return Person.builder()
+                .rank(SchoolRank.STUDENT)
+                .name("철수")
+                .build();
+    }
+
+    /**
+     * 복제 대신 primary 전체를 replica 로 복사한다. (SCRIPT 로 스키마, 데이터를 SQL 로 꺼내 replica 에서 실행)
+     * 복사 전에 읽은 primary 위치까지 반영되었다고 알린다. 복사 중 커밋된 변경은 다음 sync 에서 반영된 것으로 본다.
+     */
+    static class StandInReplicator {
+        private final ReplicaRoutingConnectionProvider routing;
+
+        StandInReplicator(ReplicaRoutingConnectionProvider routing) {
+            this.routing = routing;
+        }
+
+        void sync() {
+            long position = routing.getPrimaryPosition();
+            try (Connection primary = DriverManager.getConnection(PRIMARY_URL, "sa", "");
+                 Connection replica = DriverManager.getConnection(REPLICA_URL, "sa", "")) {
+                List<String> script = new ArrayList<>();
+                try (Statement statement = primary.createStatement();
+                     ResultSet resultSet = statement.executeQuery("script")) {
+                    while (resultSet.next()) {
+                        script.add(resultSet.getString(1));
+                    }
+                }
+                try (Statement statement = replica.createStatement()) {
+                    statement.execute("drop all objects");
+                    for (String sql : script) {
+                        statement.execute(sql);
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("replication failed", e);
+            }
+            routing.replicated(position);
+        }
+    }
+}
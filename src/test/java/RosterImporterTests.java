@@ -0,0 +1,120 @@
+import domain.Person;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.RosterImporter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.io.StringReader;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/*
+StatelessSession 대량 등록 예시
+CSV 등록 예시
+ */
+public class RosterImporterTests {
+    private static EntityManagerFactory emf;
+    private static Long tigerId;
+    @BeforeClass
+    public static void beforeClass() {
+        // 대량 insert 시 sql 출력만으로도 한참 걸리므로 끈다.
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of("hibernate.show_sql", "false"));
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        em.persist(tiger);
+        tx.commit();
+        em.close();
+        tigerId = tiger.getId();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void csvImport() {
+        String csv = "idNumber,name,email,rank\n" +
+                "201700001,짱구,a@naver.com,STUDENT\n" +
+                "201700002,철수,,STUDENT\n" +
+                "\n" +
+                "201700003,채성아,c@naver.com,STAFF\n";
+
+        RosterImporter importer = new RosterImporter(emf, 2);
+        RosterImporter.ImportResult result = importer.importPersons(RosterImporter.csvRows(new StringReader(csv)), tigerId);
+
+        Assert.assertEquals(3, result.rows());
+        Assert.assertEquals(2, result.chunks()); // 2건 + 1건
+
+        EntityManager em = emf.createEntityManager();
+        List<Person> personList = em.createQuery("select p from Person p join fetch p.myClass where p.idNumber between '201700000' and '201799999' order by p.idNumber", Person.class)
+                .getResultList();
+        Assert.assertEquals(3, personList.size());
+        Assert.assertEquals("철수", personList.get(1).getName());
+        Assert.assertNull(personList.get(1).getEmail());
+        Assert.assertEquals(SchoolRank.STAFF, personList.get(2).getRank());
+        Assert.assertEquals("호랑이반", personList.get(0).getMyClass().getName());
+        em.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownSchoolClass() {
+        new RosterImporter(emf, 10).importPersons(List.<Person>of().iterator(), -1L);
+    }
+
+    @Test
+    public void largeImportDoesNotRetainEntities() {
+        int total = 100_000;
+        WeakReference<Person>[] first = new WeakReference[1];
+        // 필요할 때마다 한 건씩 생성하는 source, 전체 목록을 메모리에 만들지 않는다.
+        Iterator<Person> rows = new Iterator<>() {
+            private int i = 0;
+            @Override
+            public boolean hasNext() {
+                return i < total;
+            }
+            @Override
+            public Person next() {
+                Person person = Person.builder()
+                        .rank(SchoolRank.STUDENT)
+                        .email(i + "@naver.com")
+                        .name("bulk 이름" + i)
+                        .build();
+                if (i++ == 0) {
+                    first[0] = new WeakReference<>(person);
+                }
+                return person;
+            }
+        };
+
+        RosterImporter.ImportResult result = new RosterImporter(emf, 1000).importPersons(rows);
+        System.out.printf("rows: %d, chunks: %d, rows/sec: %.0f%n", result.rows(), result.chunks(), result.rowsPerSecond());
+        Assert.assertEquals(total, result.rows());
+        Assert.assertEquals(100, result.chunks());
+
+        EntityManager em = emf.createEntityManager();
+        Long count = em.createQuery("select count(p) from Person p where p.name like 'bulk%'", Long.class).getSingleResult();
+        Assert.assertEquals(total, count.longValue());
+        em.close();
+
+        // 영속성 컨텍스트가 없으므로 insert 가 끝난 엔티티는 어디에서도 참조하지 않아 GC 대상이 된다.
+        for (int i = 0; i < 10 && first[0].get() != null; i++) {
+            System.gc();
+        }
+        Assert.assertNull(first[0].get());
+    }
+}
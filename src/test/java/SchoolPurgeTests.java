@@ -0,0 +1,169 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import service.SchoolPurgeService;
+import support.querycount.QueryCounter;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+
+/*
+벌크 delete 로 학교 삭제 예시 (CascadeTests.REMOVE_전이_테스트, OrphanRemovalTests 와 비교)
+ */
+public class SchoolPurgeTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2");
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 영속성_전이_삭제와_결과는_같고_쿼리는_4번() {
+        Long cascadeSchoolId = persistSchool("전이유치원");
+        Long purgeSchoolId = persistSchool("벌크유치원");
+        Long otherSchoolId = persistSchool("다른유치원");
+
+        // 영속성 전이 : 학교, 반, 학생 조회 후 한 건씩 delete
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.remove(em.find(School.class, cascadeSchoolId));
+        em.getTransaction().commit();
+        em.close();
+        Assert.assertEquals(23, statistics.getEntityDeleteCount()); // 학생 20명, 반 2개, 학교 1개 (batch 로 묶여도 delete 는 한 건씩)
+        statistics.clear();
+
+        // 벌크 delete
+        QueryCounter bulk = new QueryCounter();
+        em = bulk.createEntityManager(emf);
+        em.getTransaction().begin();
+        SchoolPurgeService.PurgeResult result = new SchoolPurgeService(emf).purge(em, purgeSchoolId);
+        em.getTransaction().commit();
+        em.close();
+
+        Assert.assertEquals(new SchoolPurgeService.PurgeResult(20, 2, 1), result);
+        bulk.assertQueryCount(4); // 조회 없이 delete 4번 (검색 색인, 학생, 반, 학교)
+        Assert.assertEquals(0, statistics.getEntityLoadCount());
+        Assert.assertEquals(0, statistics.getEntityDeleteCount());
+
+        for (Long schoolId : new Long[]{cascadeSchoolId, purgeSchoolId}) {
+            Assert.assertEquals(0, countClasses(schoolId));
+            Assert.assertEquals(0, countPersons(schoolId));
+        }
+        Assert.assertEquals(2, countClasses(otherSchoolId)); // 다른 학교는 그대로
+        Assert.assertEquals(20, countPersons(otherSchoolId));
+    }
+
+    @Test
+    public void 삭제_후_영속성_컨텍스트와_2차캐시에_남지_않는다() {
+        Long schoolId = persistSchool("캐시유치원");
+
+        // 2차 캐시에 학교, 반 목록, 반을 올려둔다.
+        EntityManager em = emf.createEntityManager();
+        School cached = em.find(School.class, schoolId);
+        Assert.assertEquals(2, cached.getClassList().size());
+        Assert.assertNotNull(em.createNamedQuery("School.findByName", School.class)
+                .setParameter("name", "캐시유치원")
+                .getSingleResult()); // 쿼리 캐시
+        em.close();
+        Assert.assertTrue(emf.getCache().contains(School.class, schoolId));
+
+        // 같은 엔티티매니저에서 로딩한 뒤 삭제
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        School school = em.find(School.class, schoolId);
+        Long classId = school.getClassList().get(0).getId();
+        new SchoolPurgeService(emf).purge(em, schoolId);
+
+        Assert.assertFalse(em.contains(school));
+        Assert.assertNull(em.find(School.class, schoolId));
+        Assert.assertNull(em.find(SchoolClass.class, classId));
+        em.getTransaction().commit();
+        em.close();
+
+        Assert.assertFalse(emf.getCache().contains(School.class, schoolId));
+        Assert.assertFalse(emf.getCache().contains(SchoolClass.class, classId));
+        em = emf.createEntityManager();
+        Assert.assertTrue(em.createNamedQuery("School.findByName", School.class)
+                .setParameter("name", "캐시유치원")
+                .getResultList()
+                .isEmpty()); // 쿼리 캐시도 무효화
+        em.close();
+    }
+
+    @Test
+    public void 새_트랜잭션에서_삭제() {
+        Long schoolId = persistSchool("새트랜잭션유치원");
+
+        SchoolPurgeService.PurgeResult result = new SchoolPurgeService(emf).purge(schoolId);
+
+        Assert.assertEquals(new SchoolPurgeService.PurgeResult(20, 2, 1), result);
+        EntityManager em = emf.createEntityManager();
+        Assert.assertNull(em.find(School.class, schoolId));
+        em.close();
+    }
+
+    /**
+     * 반 2개, 반마다 학생 10명
+     */
+    private static Long persistSchool(String name) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name(name)
+                .build();
+        for (String className : new String[]{"호랑이반", "토끼반"}) {
+            SchoolClass schoolClass = SchoolClass.builder()
+                    .name(className)
+                    .build();
+            for (int i = 0; i < 10; i++) {
+                schoolClass.addPerson(Person.builder()
+                        .rank(SchoolRank.STUDENT)
+                        .name(name + " " + className + " 이름" + i)
+                        .build());
+            }
+            school.addClass(schoolClass);
+        }
+        em.persist(school); // 영속성전이
+        tx.commit();
+        em.close();
+        return school.getId();
+    }
+
+    private static long countClasses(Long schoolId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select count(c) from SchoolClass c where c.school.id = :schoolId", Long.class)
+                    .setParameter("schoolId", schoolId)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+
+    private static long countPersons(Long schoolId) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select count(p) from Person p where p.myClass.school.id = :schoolId", Long.class)
+                    .setParameter("schoolId", schoolId)
+                    .getSingleResult();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import java.util.Map;
+
+/*
+2차 캐시 예시
+컬렉션 캐시 예시
+쿼리 캐시 예시
+ */
+public class SecondLevelCacheTests {
+    // 1차 캐시(영속성 컨텍스트)는 엔티티매니저마다 따로 있어 엔티티매니저가 닫히면 사라진다.
+    // 2차 캐시는 엔티티매니저팩토리 단위로 공유되므로 새로운 엔티티매니저에서 조회해도 DB에 질의하지 않는다.
+    private static EntityManagerFactory emf;
+    private static Statistics statistics;
+    private static Long schoolId;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of("hibernate.generate_statistics", "true"));
+        statistics = emf.unwrap(SessionFactory.class).getStatistics();
+
+        // given
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name("떡잎유치원")
+                .build();
+        SchoolClass tiger = SchoolClass.builder()
+                .name("호랑이반")
+                .build();
+        SchoolClass rabbit = SchoolClass.builder()
+                .name("토끼반")
+                .build();
+        school.addClass(tiger);
+        school.addClass(rabbit);
+        for(int i = 0 ; i < 30 ; i++) {
+            Person person = Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(i + "@naver.com")
+                    .name("tiger반 이름" + i)
+                    .build();
+            tiger.addPerson(person);
+        }
+        em.persist(school); // 영속성전이에 의해 연관된 엔티티도 persist
+        tx.commit();
+        em.close();
+        schoolId = school.getId();
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+    @Before
+    public void before() {
+        emf.getCache().evictAll(); // 테스트마다 빈 캐시에서 시작
+        statistics.clear();
+    }
+
+    @Test
+    public void 새로운_엔티티매니저에서_조회시_2차캐시_적중() {
+        EntityManager em1 = emf.createEntityManager();
+        School school1 = em1.find(School.class, schoolId); // 2차 캐시에 없으므로 DB 조회 후 2차 캐시에 저장
+        Assert.assertEquals(2, school1.getClassList().size()); // classList 지연로딩 후 컬렉션 캐시에 저장
+        em1.close();
+        long queryCountAfterFirstFind = statistics.getPrepareStatementCount();
+        Assert.assertTrue(queryCountAfterFirstFind > 0);
+
+        EntityManager em2 = emf.createEntityManager(); // 1차 캐시가 비어있는 새로운 엔티티매니저
+        School school2 = em2.find(School.class, schoolId);
+        Assert.assertEquals(2, school2.getClassList().size()); // 컬렉션 캐시(id 목록) + SchoolClass 엔티티 캐시로 조립
+        Assert.assertEquals("떡잎유치원", school2.getName());
+        em2.close();
+
+        Assert.assertEquals(queryCountAfterFirstFind, statistics.getPrepareStatementCount()); // 추가 쿼리 없음
+        Assert.assertEquals(1, statistics.getDomainDataRegionStatistics("school").getHitCount());
+        Assert.assertEquals(1, statistics.getDomainDataRegionStatistics("school_class_list").getHitCount());
+        Assert.assertEquals(2, statistics.getDomainDataRegionStatistics("school_class").getHitCount());
+    }
+
+    @Test
+    public void 쿼리캐시_적중() {
+        EntityManager em1 = emf.createEntityManager();
+        School school1 = em1.createNamedQuery("School.findByName", School.class)
+                .setParameter("name", "떡잎유치원")
+                .getSingleResult();
+        Assert.assertNotNull(school1);
+        em1.close();
+        long queryCountAfterFirstQuery = statistics.getPrepareStatementCount();
+
+        EntityManager em2 = emf.createEntityManager();
+        School school2 = em2.createNamedQuery("School.findByName", School.class)
+                .setParameter("name", "떡잎유치원")
+                .getSingleResult(); // 쿼리 캐시에서 id를 얻고 엔티티는 2차 캐시에서 조립
+        Assert.assertEquals(school1.getId(), school2.getId());
+        em2.close();
+
+        Assert.assertEquals(queryCountAfterFirstQuery, statistics.getPrepareStatementCount());
+        Assert.assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void 수정하면_쿼리캐시_무효화() {
+        EntityManager em1 = emf.createEntityManager();
+        em1.createNamedQuery("SchoolClass.findByName", SchoolClass.class)
+                .setParameter("name", "호랑이반")
+                .getSingleResult();
+        em1.close();
+
+        // school_class 테이블이 수정되면 update timestamps region 이 갱신되어 해당 테이블을 조회하는 쿼리 캐시는 무효가 된다.
+        EntityManager em2 = emf.createEntityManager();
+        EntityTransaction tx = em2.getTransaction();
+        tx.begin();
+        SchoolClass newClass = SchoolClass.builder()
+                .name("해바라기반")
+                .build();
+        em2.persist(newClass);
+        tx.commit();
+        em2.close();
+
+        EntityManager em3 = emf.createEntityManager();
+        em3.createNamedQuery("SchoolClass.findByName", SchoolClass.class)
+                .setParameter("name", "호랑이반")
+                .getSingleResult();
+        em3.close();
+
+        Assert.assertEquals(0, statistics.getQueryCacheHitCount());
+        Assert.assertEquals(2, statistics.getQueryCacheMissCount());
+    }
+}
@@ -0,0 +1,216 @@
+import domain.Person;
+import domain.type.IdNumberConverter;
+import domain.type.SchoolRank;
+import domain.type.SchoolRankConverter;
+import org.hibernate.Session;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import support.migration.StudentCompactMigration;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+student 행 크기 줄이기
+rank 는 SMALLINT 코드, 학번은 INTEGER, name, email 은 길이 지정
+이전 매핑(모두 VARCHAR(255))으로 만든 테이블을 StudentCompactMigration 으로 변경한다.
+ */
+public class StudentCompactMigrationTests {
+    private static final int ROWS = 1000;
+    private EntityManagerFactory emf;
+    private Path file;
+
+    @Before
+    public void before() {
+        // 이전 매핑의 student 테이블, 테스트마다 새 DB (in-memory DB 는 테이블 크기를 알 수 없어 파일 DB)
+        String name = "target/migration-" + UUID.randomUUID();
+        file = Path.of(name + ".mv.db");
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:file:./" + name,
+                "hibernate.hbm2ddl.auto", "none",
+                "hibernate.show_sql", "false"));
+        execute("create table student (id bigint not null, version bigint, school_id varchar(255), rank varchar(255), " +
+                "name varchar(255), email varchar(255), school_class bigint, primary key (id))");
+        execute("alter table student add constraint uk_student_school_id unique (school_id)");
+        execute("create index idx_student_name on student (name, id)");
+        execute("create index idx_student_email on student (email)");
+        emf.unwrap(org.hibernate.SessionFactory.class).inTransaction(session -> session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("insert into student values (?, 0, ?, ?, ?, ?, null)")) {
+                for (int i = 1; i <= ROWS; i++) {
+                    statement.setLong(1, i);
+                    statement.setString(2, String.valueOf(2017_00000 + i));
+                    statement.setString(3, i % 10 == 0 ? "STAFF" : "STUDENT");
+                    statement.setString(4, "이름" + i);
+                    statement.setString(5, i + "@naver.com");
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+        }));
+    }
+    @After
+    public void after() throws IOException {
+        emf.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void 마이그레이션_후_엔티티로_조회된다() {
+        long before = tableSize();
+
+        StudentCompactMigration.MigrationResult result = new StudentCompactMigration(emf, 300).migrate();
+
+        Assert.assertEquals(new StudentCompactMigration.MigrationResult(true, ROWS, 4), result); // 300건씩 4번
+        Assert.assertTrue(before + " -> " + tableSize(), tableSize() < before);
+        Assert.assertEquals("SMALLINT", columnType("RANK"));
+        Assert.assertEquals("INTEGER", columnType("SCHOOL_ID"));
+
+        EntityManager em = emf.createEntityManager();
+        Person staff = em.find(Person.class, 10L);
+        Assert.assertEquals(SchoolRank.STAFF, staff.getRank());
+        Assert.assertEquals("201700010", staff.getIdNumber());
+        Assert.assertEquals("이름10", staff.getName());
+        Assert.assertEquals(Long.valueOf(11), em.createNamedQuery("Person.findByIdNumber", Person.class)
+                .setParameter("idNumber", "201700011")
+                .getSingleResult()
+                .getId());
+        Assert.assertEquals(ROWS / 10, em.createQuery("select count(p) from Person p where p.rank = :rank", Long.class)
+                .setParameter("rank", SchoolRank.STAFF)
+                .getSingleResult()
+                .intValue());
+        em.close();
+    }
+
+    @Test
+    public void 다시_실행하면_아무것도_하지_않는다() {
+        new StudentCompactMigration(emf, 300).migrate();
+
+        Assert.assertEquals(new StudentCompactMigration.MigrationResult(false, 0, 0), new StudentCompactMigration(emf, 300).migrate());
+    }
+
+    @Test
+    public void 이전_컬럼을_지운_뒤_실패했어도_다시_실행하면_끝난다() {
+        // given 값을 옮기고 rank 를 지운 뒤 실패 (DDL 은 단계마다 커밋)
+        copyColumns();
+        execute("alter table student drop constraint uk_student_school_id");
+        execute("alter table student drop column rank");
+
+        Assert.assertEquals(new StudentCompactMigration.MigrationResult(true, 0, 0), new StudentCompactMigration(emf, 300).migrate());
+        assertMigrated();
+    }
+
+    @Test
+    public void 이름을_바꾼_뒤_실패했어도_제약조건을_다시_만든다() {
+        // given 컬럼 이름까지 바꾸고 유니크 제약조건을 만들기 전에 실패
+        copyColumns();
+        execute("alter table student drop constraint uk_student_school_id");
+        execute("alter table student drop column rank");
+        execute("alter table student drop column school_id");
+        execute("alter table student rename column rank_code to rank");
+        execute("alter table student rename column school_id_number to school_id");
+
+        Assert.assertEquals(new StudentCompactMigration.MigrationResult(true, 0, 0), new StudentCompactMigration(emf, 300).migrate());
+        assertMigrated();
+    }
+
+    @Test
+    public void 변환할_수_없는_값이_있으면_바꾸지_않는다() {
+        execute("insert into student values (" + (ROWS + 1) + ", 0, '0123', 'STUDENT', '철수', null, null)"); // 숫자로 바꾸면 0 이 사라진다.
+
+        Assert.assertThrows(IllegalStateException.class, () -> new StudentCompactMigration(emf, 300).migrate());
+        Assert.assertEquals("CHARACTER VARYING", columnType("RANK"));
+        Assert.assertEquals("CHARACTER VARYING", columnType("SCHOOL_ID"));
+    }
+
+    @Test
+    public void 컨버터는_되돌릴_수_없는_값을_저장하지_않는다() {
+        IdNumberConverter idNumber = new IdNumberConverter();
+        Assert.assertEquals(Integer.valueOf(201700001), idNumber.convertToDatabaseColumn("201700001"));
+        Assert.assertEquals("201700001", idNumber.convertToEntityAttribute(201700001));
+        Assert.assertThrows(IllegalArgumentException.class, () -> idNumber.convertToDatabaseColumn("0123"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> idNumber.convertToDatabaseColumn("2017-001"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> idNumber.convertToDatabaseColumn("9999999999")); // INTEGER 범위 초과
+
+        SchoolRankConverter rank = new SchoolRankConverter();
+        for (SchoolRank value : SchoolRank.values()) {
+            Assert.assertEquals(value, rank.convertToEntityAttribute(rank.convertToDatabaseColumn(value)));
+        }
+        Assert.assertThrows(IllegalArgumentException.class, () -> rank.convertToEntityAttribute((short) 99));
+    }
+
+    /**
+     * StudentCompactMigration 의 1, 2번을 한번에 실행
+     */
+    private void copyColumns() {
+        execute("alter table student add column rank_code smallint");
+        execute("alter table student add column school_id_number integer");
+        execute("update student set rank_code = case rank when 'STAFF' then " + SchoolRank.STAFF.getCode() + " else " + SchoolRank.STUDENT.getCode() + " end, " +
+                "school_id_number = cast(school_id as integer)");
+    }
+
+    private void assertMigrated() {
+        Assert.assertEquals("SMALLINT", columnType("RANK"));
+        Assert.assertEquals("INTEGER", columnType("SCHOOL_ID"));
+        Assert.assertEquals(1, query("select count(*) from information_schema.table_constraints where constraint_name = 'UK_STUDENT_SCHOOL_ID'"));
+        EntityManager em = emf.createEntityManager();
+        Person staff = em.find(Person.class, 10L);
+        Assert.assertEquals(SchoolRank.STAFF, staff.getRank());
+        Assert.assertEquals("201700010", staff.getIdNumber());
+        em.close();
+        Assert.assertEquals(new StudentCompactMigration.MigrationResult(false, 0, 0), new StudentCompactMigration(emf, 300).migrate());
+    }
+
+    private void execute(String sql) {
+        emf.unwrap(org.hibernate.SessionFactory.class).inTransaction(session -> session.doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(sql);
+            }
+        }));
+    }
+
+    /**
+     * student 테이블과 인덱스가 차지하는 바이트 (기록되지 않은 변경은 세지 않으므로 checkpoint 후)
+     */
+    private long tableSize() {
+        execute("checkpoint");
+        return query("call disk_space_used('STUDENT')");
+    }
+
+    private String columnType(String column) {
+        EntityManager em = emf.createEntityManager();
+        String type = em.unwrap(Session.class).doReturningWork(connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(null, null, "STUDENT", column)) {
+                columns.next();
+                return columns.getString("TYPE_NAME");
+            }
+        });
+        em.close();
+        return type;
+    }
+
+    private long query(String sql) {
+        EntityManager em = emf.createEntityManager();
+        long value = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(sql)) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        });
+        em.close();
+        return value;
+    }
+}
@@ -0,0 +1,150 @@
+import domain.Person;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Persistence;
+import jakarta.persistence.PessimisticLockException;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import support.tx.UnitOfWorkExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/*
+가상 스레드 작업 단위 동시 실행 예시
+ */
+public class UnitOfWorkExecutorTests {
+    private static EntityManagerFactory emf;
+    @BeforeClass
+    public static void beforeClass() {
+        emf = Persistence.createEntityManagerFactory("hello-h2", Map.of(
+                "javax.persistence.jdbc.url", "jdbc:h2:mem:uow;LOCK_TIMEOUT=100", // 행 락을 100ms 기다리고 실패
+                "hibernate.hikari.maximumPoolSize", "4",
+                "hibernate.show_sql", "false"));
+    }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
+
+    @Test
+    public void 수천개의_작업을_커넥션_풀_크기만큼만_동시에_실행() {
+        Long classId = persist(SchoolClass.builder().name("가상스레드반").build()).getId();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Function<EntityManager, Long>> works = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String name = "가상스레드 이름" + i;
+            works.add(em -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Person person = Person.builder()
+                            .rank(SchoolRank.STUDENT)
+                            .name(name)
+                            .build();
+                    person.setMyClass(em.getReference(SchoolClass.class, classId));
+                    em.persist(person);
+                    em.flush();
+                    return person.getId();
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+        }
+
+        List<Long> ids;
+        try (UnitOfWorkExecutor executor = UnitOfWorkExecutor.create(emf)) {
+            ids = executor.invokeAll(works);
+        }
+
+        Assert.assertEquals(2000, ids.stream().distinct().count());
+        Assert.assertTrue(maxRunning.get() <= 4); // maximumPoolSize
+        EntityManager em = emf.createEntityManager();
+        Long count = em.createQuery("select count(p) from Person p where p.myClass.id = :classId", Long.class)
+                .setParameter("classId", classId)
+                .getSingleResult();
+        Assert.assertEquals(2000L, count.longValue());
+        em.close();
+    }
+
+    @Test
+    public void 락_획득에_실패하면_다시_실행() {
+        Long classId = persist(SchoolClass.builder().name("0").build()).getId();
+
+        // 같은 행을 select for update 로 잠그고 1 씩 증가, 락을 기다리다 실패한 작업은 재시도
+        List<Function<EntityManager, String>> works = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            works.add(em -> {
+                SchoolClass schoolClass = em.find(SchoolClass.class, classId, LockModeType.PESSIMISTIC_WRITE);
+                String next = String.valueOf(Integer.parseInt(schoolClass.getName()) + 1);
+                schoolClass.changeName(next);
+                sleep(5); // 락을 잡고 있는 동안 다른 작업이 대기
+                return next;
+            });
+        }
+        try (UnitOfWorkExecutor executor = new UnitOfWorkExecutor(emf, Executors.newVirtualThreadPerTaskExecutor(), 4, 100)) {
+            executor.invokeAll(works);
+        }
+
+        EntityManager em = emf.createEntityManager();
+        Assert.assertEquals("50", em.find(SchoolClass.class, classId).getName()); // 갱신 손실 없음
+        em.close();
+    }
+
+    @Test
+    public void 락_실패가_아니면_재시도하지_않는다() {
+        AtomicInteger attempts = new AtomicInteger();
+        try (UnitOfWorkExecutor executor = UnitOfWorkExecutor.create(emf)) {
+            executor.submit(em -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("실패");
+            }).join();
+            Assert.fail();
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        Assert.assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void 재시도_횟수를_넘으면_마지막_예외() {
+        AtomicInteger attempts = new AtomicInteger();
+        try (UnitOfWorkExecutor executor = new UnitOfWorkExecutor(emf, Executors.newVirtualThreadPerTaskExecutor(), 1, 3)) {
+            executor.invokeAll(List.of(em -> {
+                attempts.incrementAndGet();
+                throw new PessimisticLockException("lock");
+            }));
+            Assert.fail();
+        } catch (PessimisticLockException e) {
+            Assert.assertEquals(3, attempts.get());
+        }
+    }
+
+    private static <T> T persist(T entity) {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        em.persist(entity);
+        em.getTransaction().commit();
+        em.close();
+        return entity;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
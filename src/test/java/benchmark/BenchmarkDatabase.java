@@ -0,0 +1,104 @@
+package benchmark;
+
+import domain.Person;
+import domain.School;
+import domain.SchoolClass;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 벤치마크용 엔티티매니저팩토리, 데이터 생성
+ * 벤치마크마다 별도의 in-memory DB 를 사용하고 SQL 출력, 통계, 2차 캐시는 끈다. (측정 대상이 아닌 비용 제거)
+ */
+final class BenchmarkDatabase {
+    private BenchmarkDatabase() {
+    }
+
+    static String newUrl() {
+        return "jdbc:h2:mem:bench-" + UUID.randomUUID();
+    }
+
+    /**
+     * 파일 DB (target/bench-*.mv.db), 동시 접속 시 in-memory DB 보다 실제 DB 에 가까운 I/O, 잠금 비용이 든다.
+     */
+    static String newFileUrl() {
+        return "jdbc:h2:file:./target/bench-" + UUID.randomUUID();
+    }
+
+    static void deleteFiles(String fileUrl) {
+        try {
+            Files.deleteIfExists(Path.of(fileUrl.substring("jdbc:h2:file:".length()) + ".mv.db"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static EntityManagerFactory create(String url) {
+        return create(url, true, Map.of());
+    }
+
+    /**
+     * @param createSchema 같은 DB 를 여러 팩토리가 사용할 때 두번째부터는 false (스키마를 다시 만들면 데이터가 지워진다)
+     */
+    static EntityManagerFactory create(String url, boolean createSchema, Map<String, Object> overrides) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("javax.persistence.jdbc.url", url);
+        properties.put("hibernate.hbm2ddl.auto", createSchema ? "create" : "none");
+        properties.put("hibernate.show_sql", "false");
+        properties.put("hibernate.format_sql", "false");
+        properties.put("hibernate.use_sql_comments", "false");
+        properties.put("hibernate.generate_statistics", "false");
+        properties.put("jakarta.persistence.sharedCache.mode", "NONE");
+        properties.put("hibernate.cache.use_second_level_cache", "false");
+        properties.put("hibernate.cache.use_query_cache", "false");
+        properties.putAll(overrides);
+        return Persistence.createEntityManagerFactory("hello-h2", properties);
+    }
+
+    /**
+     * 학교 schools 개, 학교마다 반 classesPerSchool 개, 반마다 학생 personsPerClass 명 생성
+     */
+    static void populate(EntityManagerFactory emf, int schools, int classesPerSchool, int personsPerClass) {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        for (int s = 0; s < schools; s++) {
+            School school = School.builder()
+                    .name("학교" + s)
+                    .build();
+            for (int c = 0; c < classesPerSchool; c++) {
+                school.addClass(newClass("반" + s + "-" + c, personsPerClass));
+            }
+            em.persist(school); // 영속성전이
+            em.flush();
+            em.clear(); // 데이터 생성 중 영속성 컨텍스트가 커지지 않게 학교 단위로 비움
+        }
+        tx.commit();
+        em.close();
+    }
+
+    static SchoolClass newClass(String name, int persons) {
+        SchoolClass schoolClass = SchoolClass.builder()
+                .name(name)
+                .build();
+        for (int p = 0; p < persons; p++) {
+            schoolClass.addPerson(Person.builder()
+                    .rank(SchoolRank.STUDENT)
+                    .email(p + "@naver.com")
+                    .name(name + " 이름" + p)
+                    .build());
+        }
+        return schoolClass;
+    }
+}
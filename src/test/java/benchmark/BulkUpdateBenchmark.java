@@ -0,0 +1,84 @@
+package benchmark;
+
+import domain.Person;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.PersonBulkUpdater;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 반 전체 rank 변경 더티체킹 vs 벌크 update (PersonBulkUpdaterTests 참고)
+ * 매번 같은 데이터로 측정하도록 update 후 롤백한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BulkUpdateBenchmark {
+    @Param({"100000"})
+    int rows;
+
+    private EntityManagerFactory emf;
+    private Long schoolClassId;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+        BenchmarkDatabase.populate(emf, 1, 1, rows);
+        EntityManager em = emf.createEntityManager();
+        schoolClassId = em.createQuery("select c.id from SchoolClass c", Long.class).getSingleResult();
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public int dirtyChecking() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        try {
+            List<Person> personList = em.createQuery("select p from Person p where p.myClass.id = :classId and p.rank = :rank", Person.class)
+                    .setParameter("classId", schoolClassId)
+                    .setParameter("rank", SchoolRank.STUDENT)
+                    .getResultList();
+            personList.forEach(person -> person.changeRank(SchoolRank.STAFF));
+            em.flush(); // 조회 1번 + update rows 번 (batch_size 만큼 묶여서)
+            return personList.size();
+        } finally {
+            em.getTransaction().rollback();
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public long bulkUpdate() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        try {
+            return new PersonBulkUpdater(em).changeRank(schoolClassId, SchoolRank.STUDENT, SchoolRank.STAFF); // update 1번
+        } finally {
+            em.getTransaction().rollback();
+            em.close();
+        }
+    }
+}
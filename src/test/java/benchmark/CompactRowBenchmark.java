@@ -0,0 +1,135 @@
+package benchmark;
+
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import support.migration.StudentCompactMigration;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * student 행 크기와 전체 조회 비용, 이전 매핑 vs StudentCompactMigration 적용 후 (StudentCompactMigrationTests 참고)
+ * legacy: school_id, rank('STUDENT'), name, email 모두 VARCHAR(255)
+ * compact: school_id INTEGER, rank SMALLINT, name VARCHAR(50), email VARCHAR(100)
+ * 테이블 크기(바이트)는 setup 에서 출력한다. scan 은 인덱스가 없는 rank 조건이라 모든 행을 읽는다.
+ * 10만 건 측정: 크기 5.73MB -> 5.31MB (약 7%), scan 은 차이 없음 (12.5ms vs 13.9ms, H2 는 행마다 드는 비용이 값 크기보다 크다)
+ * 줄어든 크기는 버퍼 캐시에 올라가는 행 수, 백업과 복제 크기에서 차이가 난다.
+ * 테이블 크기를 재기 위해 파일 DB 를 사용하고, 같은 쿼리의 이전 결과를 재사용하지 않도록 OPTIMIZE_REUSE_RESULTS 를 끈다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompactRowBenchmark {
+    private static final int CHUNK_SIZE = 10_000;
+
+    @Param({"legacy", "compact"})
+    String layout;
+
+    @Param({"100000"})
+    int rows;
+
+    private String url;
+    private EntityManagerFactory emf;
+    private SessionFactory sessionFactory;
+    private Session session;
+    private Object staff;
+
+    @Setup
+    public void setup() {
+        url = BenchmarkDatabase.newFileUrl();
+        emf = BenchmarkDatabase.create(url, false, Map.of());
+        sessionFactory = emf.unwrap(SessionFactory.class);
+        createLegacyTable();
+        if (layout.equals("compact")) {
+            new StudentCompactMigration(emf, CHUNK_SIZE).migrate();
+            staff = SchoolRank.STAFF.getCode();
+        } else {
+            staff = SchoolRank.STAFF.name();
+        }
+        System.out.printf("%n%s student: %d bytes%n", layout, tableSize());
+        session = sessionFactory.openSession();
+        session.doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set optimize_reuse_results 0");
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        emf.close();
+        BenchmarkDatabase.deleteFiles(url);
+    }
+
+    @Benchmark
+    public long scan() {
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("select count(*) from student where rank = ?")) {
+                statement.setObject(1, staff);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                }
+            }
+        });
+    }
+
+    private void createLegacyTable() {
+        sessionFactory.inSession(session -> session.doWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create table student (id bigint not null, version bigint, school_id varchar(255), rank varchar(255), " +
+                        "name varchar(255), email varchar(255), school_class bigint, primary key (id))");
+                statement.execute("alter table student add constraint uk_student_school_id unique (school_id)");
+            }
+            try (PreparedStatement statement = connection.prepareStatement("insert into student values (?, 0, ?, ?, ?, ?, null)")) {
+                for (int i = 1; i <= rows; i++) {
+                    statement.setLong(1, i);
+                    statement.setString(2, String.valueOf(2017_00000 + i));
+                    statement.setString(3, i % 10 == 0 ? "STAFF" : "STUDENT");
+                    statement.setString(4, "이름" + i);
+                    statement.setString(5, i + "@naver.com");
+                    statement.addBatch();
+                    if (i % CHUNK_SIZE == 0) {
+                        statement.executeBatch();
+                        connection.commit();
+                    }
+                }
+                statement.executeBatch();
+                connection.commit();
+            }
+        }));
+    }
+
+    private long tableSize() {
+        return sessionFactory.fromSession(session -> session.doReturningWork(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("checkpoint");
+                try (ResultSet resultSet = statement.executeQuery("call disk_space_used('STUDENT')")) {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                }
+            }
+        }));
+    }
+}
@@ -0,0 +1,83 @@
+package benchmark;
+
+import domain.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 커넥션 풀 HikariCP vs 하이버네이트 기본 커넥션 풀 (ConnectionPoolTests 참고)
+ * 짧은 트랜잭션(커넥션 획득 -> 조회 1번 -> 반납)의 처리량을 스레드 수를 바꿔가며 비교한다. (H2 파일 DB)
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ConnectionPoolBenchmark -t 1"
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ConnectionPoolBenchmark -t 8"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionPoolBenchmark {
+    @Param({"hikari", "builtin"})
+    String pool;
+    @Param({"10"})
+    int poolSize;
+
+    private String url;
+    private EntityManagerFactory emf;
+    private List<Long> ids;
+
+    @Setup
+    public void setup() {
+        url = BenchmarkDatabase.newFileUrl();
+        Map<String, Object> overrides = pool.equals("hikari")
+                ? Map.of("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize))
+                : Map.of("hibernate.connection.provider_class", "org.hibernate.engine.jdbc.connections.internal.DriverManagerConnectionProviderImpl",
+                        "hibernate.connection.pool_size", String.valueOf(poolSize));
+        emf = BenchmarkDatabase.create(url, true, overrides);
+        BenchmarkDatabase.populate(emf, 1, 10, 100);
+        EntityManager em = emf.createEntityManager();
+        ids = em.createQuery("select p.id from Person p", Long.class).getResultList();
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+        BenchmarkDatabase.deleteFiles(url);
+    }
+
+    @Benchmark
+    public String shortTransaction() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin(); // 커넥션 획득
+        try {
+            Person person = em.find(Person.class, ids.get(ThreadLocalRandom.current().nextInt(ids.size()))); // 커넥션 획득
+            tx.commit(); // 커넥션 반납
+            return person.getName();
+        } finally {
+            if (tx.isActive()) {
+                tx.rollback();
+            }
+            em.close();
+        }
+    }
+}
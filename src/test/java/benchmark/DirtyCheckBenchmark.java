@@ -0,0 +1,80 @@
+package benchmark;
+
+import domain.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 영속성 컨텍스트 크기에 따른 flush(더티체킹) 비용 (DirtyCheckingTests 참고)
+ * 한 명의 이름만 바꿔도 flush 시 관리 중인 모든 엔티티를 스냅샷과 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirtyCheckBenchmark {
+    @Param({"100", "1000", "10000"})
+    int contextSize;
+
+    private EntityManagerFactory emf;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+        BenchmarkDatabase.populate(emf, 1, 1, contextSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    /**
+     * 측정 전에 contextSize 만큼 엔티티를 영속성 컨텍스트에 올려둔다.
+     */
+    @State(Scope.Thread)
+    public static class LoadedContext {
+        EntityManager em;
+        List<Person> personList;
+        int round;
+
+        @Setup(Level.Invocation)
+        public void load(DirtyCheckBenchmark benchmark) {
+            em = benchmark.emf.createEntityManager();
+            em.getTransaction().begin();
+            personList = em.createQuery("select p from Person p", Person.class).getResultList();
+        }
+
+        @TearDown(Level.Invocation)
+        public void rollback() {
+            em.getTransaction().rollback();
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public Person flushOneChange(LoadedContext context) {
+        Person person = context.personList.get(0);
+        person.changeName("두식이" + context.round++);
+        context.em.flush(); // update 1건이지만 더티체킹은 contextSize 만큼
+        return person;
+    }
+}
@@ -0,0 +1,111 @@
+package benchmark;
+
+import domain.Person;
+import domain.SchoolClass;
+import domain.query.FetchPlan;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SchoolClass.personList 로딩 전략 비교 (FetchJoinTests 참고)
+ * 반마다 조회(N + 1) vs 지연로딩(@BatchSize) vs 컬렉션 페치 조인 vs 엔티티 그래프(FetchPlan)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FetchStrategyBenchmark {
+    @Param({"1", "10"})
+    int schools;
+    @Param({"10"})
+    int classesPerSchool;
+    @Param({"30"})
+    int personsPerClass;
+
+    private EntityManagerFactory emf;
+
+    @Setup
+    public void setup() {
+        String url = BenchmarkDatabase.newUrl();
+        emf = BenchmarkDatabase.create(url);
+        BenchmarkDatabase.populate(emf, schools, classesPerSchool, personsPerClass);
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public int nPlusOne() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            int persons = 0;
+            for (SchoolClass schoolClass : em.createQuery("select c from SchoolClass c", SchoolClass.class).getResultList()) {
+                persons += em.createQuery("select p from Person p where p.myClass = :schoolClass", Person.class)
+                        .setParameter("schoolClass", schoolClass)
+                        .getResultList()
+                        .size(); // 1 + 반 개수만큼 쿼리
+            }
+            return persons;
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public int lazyLoading() {
+        return countPersons(emf, "select c from SchoolClass c"); // 1 + 1번 (반 100개까지), 첫 초기화 때 in 절로 다른 반의 personList 도 조회
+    }
+
+    @Benchmark
+    public int fetchJoin() {
+        return countPersons(emf, "select c from SchoolClass c left join fetch c.personList"); // 1번
+    }
+
+    @Benchmark
+    public int entityGraph() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<SchoolClass> classList = FetchPlan.CLASS_WITH_PERSONS.apply(em, em.createQuery("select c from SchoolClass c", SchoolClass.class))
+                    .getResultList(); // 1번, 페치 조인과 같은 SQL
+            return countPersons(classList);
+        } finally {
+            em.close();
+        }
+    }
+
+    private static int countPersons(EntityManagerFactory factory, String query) {
+        EntityManager em = factory.createEntityManager();
+        try {
+            return countPersons(em.createQuery(query, SchoolClass.class).getResultList());
+        } finally {
+            em.close();
+        }
+    }
+
+    private static int countPersons(List<SchoolClass> classList) {
+        int persons = 0;
+        for (SchoolClass schoolClass : classList) {
+            persons += schoolClass.getPersonList().size();
+        }
+        return persons;
+    }
+}
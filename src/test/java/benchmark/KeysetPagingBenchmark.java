@@ -0,0 +1,87 @@
+package benchmark;
+
+import domain.Person;
+import domain.query.KeysetPage;
+import domain.query.PersonKeysetQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * offset 페이징 vs keyset 페이징, 페이지 깊이에 따른 비용 (HibernateTests.jpqlPaging 참고)
+ * 1M 건 측정: -Djmh.args="KeysetPagingBenchmark -p rows=1000000"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KeysetPagingBenchmark {
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"100000"})
+    int rows;
+    @Param({"0", "100", "2000"})
+    int page;
+
+    private EntityManagerFactory emf;
+    private String token;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+        BenchmarkDatabase.populate(emf, 1, 10, rows / 10);
+
+        // page 번째 페이지의 토큰은 앞에서부터 넘겨봐야 얻을 수 있다.
+        EntityManager em = emf.createEntityManager();
+        PersonKeysetQuery query = new PersonKeysetQuery(em);
+        for (int i = 0; i < page; i++) {
+            token = query.findPage(PersonKeysetQuery.Order.CLASS, token, PAGE_SIZE).nextToken();
+            em.clear();
+        }
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Person> offset() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return em.createQuery("select p from Person p order by p.myClass.id nulls last, p.id", Person.class)
+                    .setFirstResult(page * PAGE_SIZE)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public KeysetPage<Person> keyset() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return new PersonKeysetQuery(em).findPage(PersonKeysetQuery.Order.CLASS, token, PAGE_SIZE);
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import domain.SchoolClass;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.LockModeType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import support.tx.UnitOfWorkExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 같은 행을 동시에 수정할 때 낙관적 락(@Version + 재시도) vs 비관적 락(select for update) (OptimisticLockTests 참고)
+ * tasks 개의 작업이 hotRows 개의 반 중 하나의 이름을 읽고 바꾼다. hotRows 가 작을수록 경합이 심하다.
+ * 낙관적 락은 충돌한 작업을 다시 실행하고, 비관적 락은 먼저 잡은 트랜잭션이 끝날 때까지 기다린다.
+ * 동시에 여는 엔티티매니저 수는 커넥션 풀 크기(10)로 제한된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OptimisticLockingBenchmark {
+    @Param({"optimistic", "pessimistic"})
+    String lock;
+    @Param({"1", "10", "100"})
+    int hotRows;
+    @Param({"500"})
+    int tasks;
+
+    private EntityManagerFactory emf;
+    private List<Long> classIds;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl() + ";LOCK_TIMEOUT=10000");
+        BenchmarkDatabase.populate(emf, 1, hotRows, 0);
+        EntityManager em = emf.createEntityManager();
+        classIds = em.createQuery("select c.id from SchoolClass c", Long.class).getResultList();
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<String> contendedUpdate() {
+        LockModeType lockMode = lock.equals("optimistic") ? LockModeType.NONE : LockModeType.PESSIMISTIC_WRITE;
+        List<Function<EntityManager, String>> works = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            Long classId = classIds.get(i % classIds.size());
+            String newName = "반" + i;
+            works.add(em -> {
+                SchoolClass schoolClass = em.find(SchoolClass.class, classId, lockMode);
+                schoolClass.changeName(newName);
+                return newName;
+            });
+        }
+        try (UnitOfWorkExecutor unitOfWork = new UnitOfWorkExecutor(emf, Executors.newVirtualThreadPerTaskExecutor(), UnitOfWorkExecutor.poolSize(emf), 50)) {
+            return unitOfWork.invokeAll(works);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package benchmark;
+
+import domain.SchoolClass;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 반 삭제 비용 비교 (OrphanRemovalTests 참고)
+ * orphanRemoval(학생을 모두 로딩 후 한 건씩 delete) vs 벌크 delete 쿼리
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrphanRemovalBenchmark {
+    @Param({"30", "1000"})
+    int personsPerClass;
+
+    private EntityManagerFactory emf;
+    private Long classId;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void insertClass() {
+        EntityManager em = emf.createEntityManager();
+        em.getTransaction().begin();
+        SchoolClass schoolClass = BenchmarkDatabase.newClass("해바라기반", personsPerClass);
+        em.persist(schoolClass);
+        em.getTransaction().commit();
+        em.close();
+        classId = schoolClass.getId();
+    }
+
+    @Benchmark
+    public void orphanRemoval() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        em.remove(em.find(SchoolClass.class, classId)); // personList 로딩 후 학생마다 delete
+        tx.commit();
+        em.close();
+    }
+
+    @Benchmark
+    public int bulkDelete() {
+        EntityManager em = emf.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        int deleted = em.createQuery("delete from Person p where p.myClass.id = :classId")
+                .setParameter("classId", classId)
+                .executeUpdate();
+        deleted += em.createQuery("delete from SchoolClass c where c.id = :classId")
+                .setParameter("classId", classId)
+                .executeUpdate();
+        tx.commit();
+        em.close();
+        return deleted;
+    }
+}
@@ -0,0 +1,99 @@
+package benchmark;
+
+import domain.Person;
+import domain.School;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.RosterImporter;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * 학교 1개(반 classesPerSchool 개, 학생 personsPerClass 명) 저장 비용 비교 (CascadeTests 참고)
+ * batch 없는 cascade persist vs JDBC batch cascade persist vs StatelessSession batch insert
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistBenchmark {
+    @Param({"2"})
+    int classesPerSchool;
+    @Param({"30", "500"})
+    int personsPerClass;
+
+    private EntityManagerFactory emf;
+    private EntityManagerFactory noBatchEmf;
+    private RosterImporter importer;
+
+    @Setup
+    public void setup() {
+        String url = BenchmarkDatabase.newUrl();
+        emf = BenchmarkDatabase.create(url);
+        noBatchEmf = BenchmarkDatabase.create(url, false, Map.of("hibernate.jdbc.batch_size", "0"));
+        importer = new RosterImporter(emf, 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        noBatchEmf.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public School cascadePersistWithoutBatch() {
+        return persistSchool(noBatchEmf);
+    }
+
+    @Benchmark
+    public School cascadePersistWithBatch() {
+        return persistSchool(emf);
+    }
+
+    @Benchmark
+    public RosterImporter.ImportResult statelessInsert() {
+        Iterator<Person> rows = IntStream.range(0, classesPerSchool * personsPerClass)
+                .mapToObj(i -> Person.builder()
+                        .rank(SchoolRank.STUDENT)
+                        .email(i + "@naver.com")
+                        .name("이름" + i)
+                        .build())
+                .iterator();
+        return importer.importPersons(rows);
+    }
+
+    private School persistSchool(EntityManagerFactory factory) {
+        EntityManager em = factory.createEntityManager();
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        School school = School.builder()
+                .name("떡잎유치원")
+                .build();
+        for (int c = 0; c < classesPerSchool; c++) {
+            school.addClass(BenchmarkDatabase.newClass("반" + c, personsPerClass));
+        }
+        em.persist(school);
+        tx.commit();
+        em.close();
+        return school;
+    }
+}
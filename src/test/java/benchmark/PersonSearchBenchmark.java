@@ -0,0 +1,114 @@
+package benchmark;
+
+import domain.Person;
+import domain.query.PersonSearchQuery;
+import domain.type.SchoolRank;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import service.RosterImporter;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 이름, 이메일 부분 검색, like '%키워드%' 전체 조회 vs n-gram 색인 (PersonSearchTests 참고)
+ * 이름은 흔한 성씨/이름 글자 3개를, 이메일은 영문 소문자 6개와 도메인 3개 중 하나를 무작위로 조합한다.
+ * (BenchmarkDatabase.populate 의 "반0-1 이름5" 는 모든 gram 이 흔해 색인이 도움되지 않는다)
+ * like 는 rows 에 비례하고 색인은 고른 gram 의 색인 행 수에 비례한다. 검색어 "김민", "kim" 은 rows 의 0.02~0.03% 만 일치한다.
+ * 1글자 검색어, 도메인 검색은 PersonSearchQuery 도 like 로 조회하므로 비교하지 않는다.
+ * 100만 건은 색인 행까지 메모리 DB 에 올리므로 힙을 4GB 로 늘린다. RosterImporter 로 등록하는데 몇 분 걸린다. (-p rows=10000,100000 로 제외)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersonSearchBenchmark {
+    private static final String KEYWORD = "김민";
+    private static final String EMAIL_KEYWORD = "kim";
+    private static final String[] DOMAINS = {"naver.com", "gmail.com", "daum.net"};
+    private static final String SYLLABLES = "김이박최정강조윤장임한오서신권황안송류전홍고문양손배백허유남심노하곽성차주우구민진나지엄채원천방공현함변염여추도소석선설마길연위표명기반왕금옥육인맹제모탁국어은편용예경봉사부가복태상호";
+
+    @Param({"10000", "100000", "1000000"})
+    int rows;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+        Random random = new Random(1);
+        Iterator<Person> persons = Stream.generate(() -> Person.builder()
+                        .rank(SchoolRank.STUDENT)
+                        .name(randomName(random))
+                        .email(randomEmail(random))
+                        .build())
+                .limit(rows)
+                .iterator();
+        new RosterImporter(emf, 1000).importPersons(persons);
+        em = emf.createEntityManager();
+    }
+
+    @TearDown
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Long> likeScan() {
+        return em.createQuery("select p.id from Person p where lower(p.name) like :pattern order by p.id", Long.class)
+                .setParameter("pattern", "%" + KEYWORD + "%")
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<Long> ngramIndex() {
+        return new PersonSearchQuery(em).findIdsByName(KEYWORD, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Long> emailLikeScan() {
+        return em.createQuery("select p.id from Person p where lower(p.email) like :pattern order by p.id", Long.class)
+                .setParameter("pattern", "%" + EMAIL_KEYWORD + "%@%")
+                .getResultList();
+    }
+
+    @Benchmark
+    public List<Long> emailNgramIndex() {
+        return new PersonSearchQuery(em).findIdsByEmail(EMAIL_KEYWORD, Integer.MAX_VALUE);
+    }
+
+    private static String randomEmail(Random random) {
+        StringBuilder email = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            email.append((char) ('a' + random.nextInt(26)));
+        }
+        return email.append('@').append(DOMAINS[random.nextInt(DOMAINS.length)]).toString();
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            name.append(SYLLABLES.charAt(random.nextInt(SYLLABLES.length())));
+        }
+        return name.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package benchmark;
+
+import domain.Person;
+import domain.query.PersonSummary;
+import domain.query.SummaryQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 목록 조회 엔티티 vs DTO 프로젝션 (ProjectionTests 참고)
+ * 같은 정보(id, 이름, 이메일, 반 이름)를 엔티티 페치 조인과 record 로 조회한다.
+ * 할당량은 -prof gc 의 gc.alloc.rate.norm 으로 비교한다.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ProjectionBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProjectionBenchmark {
+    @Param({"100000"})
+    int rows;
+
+    private EntityManagerFactory emf;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+        BenchmarkDatabase.populate(emf, rows / 1000, 10, 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public int entity() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<Person> personList = em.createQuery("select p from Person p left join fetch p.myClass where p.name like :name order by p.id", Person.class)
+                    .setParameter("name", "반%")
+                    .getResultList();
+            return personList.size(); // Person + SchoolClass 엔티티, 스냅샷까지 영속성 컨텍스트에 올라간다.
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public int jpqlProjection() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<PersonSummary> personList = new SummaryQuery(em).findPersons("반");
+            return personList.size();
+        } finally {
+            em.close();
+        }
+    }
+
+    @Benchmark
+    public int querydslProjection() {
+        EntityManager em = emf.createEntityManager();
+        try {
+            List<PersonSummary> personList = new SummaryQuery(em).findPersonsWithQuerydsl("반");
+            return personList.size();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package benchmark;
+
+import domain.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 쿼리 1번당 비용, 쿼리 계획 캐시 + JDBC statement 캐시 사용 여부 비교 (QueryPlanCacheTests 참고)
+ * 결과가 몇 건뿐인 조회이므로 HQL 파싱, SQL 변환, DB 의 SQL 파싱 비용이 대부분이다.
+ * caches=false 는 hibernate.query.plan_cache_enabled=false, H2 QUERY_CACHE_SIZE=0
+ * 값을 이어붙인 HQL 은 매번 다른 문자열이므로 캐시를 켜도 적중하지 않는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryPlanCacheBenchmark {
+    @Param({"true", "false"})
+    boolean caches;
+
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private List<Long> classIds;
+    private long sequence;
+
+    @Setup
+    public void setup() {
+        String url = BenchmarkDatabase.newUrl();
+        emf = caches
+                ? BenchmarkDatabase.create(url)
+                : BenchmarkDatabase.create(url, true, Map.of(
+                        "hibernate.query.plan_cache_enabled", "false",
+                        "hibernate.hikari.dataSource.QUERY_CACHE_SIZE", "0"));
+        BenchmarkDatabase.populate(emf, 1, 10, 5);
+        em = emf.createEntityManager();
+        classIds = em.createQuery("select c.id from SchoolClass c", Long.class).getResultList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        em.close();
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Person> namedQuery() {
+        List<Person> personList = em.createNamedQuery("Person.findByClassId", Person.class)
+                .setParameter("classId", nextClassId())
+                .getResultList();
+        em.clear();
+        return personList;
+    }
+
+    @Benchmark
+    public List<Person> parameterBinding() {
+        List<Person> personList = em.createQuery("select p from Person p where p.myClass.id = :classId order by p.id", Person.class)
+                .setParameter("classId", nextClassId())
+                .getResultList();
+        em.clear();
+        return personList;
+    }
+
+    @Benchmark
+    public List<Person> concatenatedLiteral() {
+        List<Person> personList = em.createQuery("select p from Person p where p.myClass.id = " + (sequence++) + " order by p.id", Person.class)
+                .getResultList(); // 대부분 없는 반, 결과 건수가 아니라 매번 새로 컴파일하는 비용을 본다.
+        em.clear();
+        return personList;
+    }
+
+    private Long nextClassId() {
+        return classIds.get((int) (sequence++ % classIds.size()));
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import domain.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.TypedQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import support.readonly.ReadOnlyQueries;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 대량 조회 시 일반 엔티티 vs 읽기 전용 쿼리 vs 읽기 전용 세션 (ReadOnlyQueryTests 참고)
+ * 트랜잭션 안에서 rows 만큼 Person 을 읽고 커밋한다.
+ * -prof gc 의 gc.alloc.rate.norm 으로 할당량을 비교한다.
+ * 읽기 전용 세션은 스냅샷을 만들지 않아 할당량이 절반 정도로 줄고,
+ * 읽기 전용 쿼리는 로딩 직후 스냅샷을 버리므로 할당량은 같지만 영속성 컨텍스트가 붙잡고 있는 메모리가 줄어든다.
+ * mvn -Pjmh test-compile exec:exec -Djmh.args="ReadOnlyBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ReadOnlyBenchmark {
+    private static final String QUERY = "select p from Person p";
+
+    @Param({"100000"})
+    int rows;
+
+    private EntityManagerFactory emf;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+        BenchmarkDatabase.populate(emf, rows / 1000, 10, 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public int managed() {
+        return readAll(emf.createEntityManager(), false); // 스냅샷 보관, 커밋 시 rows 만큼 더티체킹
+    }
+
+    @Benchmark
+    public int readOnlyQuery() {
+        return readAll(emf.createEntityManager(), true);
+    }
+
+    @Benchmark
+    public int readOnlySession() {
+        return readAll(ReadOnlyQueries.createEntityManager(emf), false);
+    }
+
+    private static int readAll(EntityManager em, boolean readOnlyQuery) {
+        EntityTransaction tx = em.getTransaction();
+        tx.begin();
+        try {
+            TypedQuery<Person> query = em.createQuery(QUERY, Person.class);
+            List<Person> personList = (readOnlyQuery ? ReadOnlyQueries.readOnly(query) : query).getResultList();
+            tx.commit();
+            return personList.size();
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package benchmark;
+
+import domain.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import support.tenant.TenantContext;
+import support.tenant.TenantSchemas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 학교 수에 따른 학교 하나의 조회 지연시간, 모든 학교가 같은 테이블 vs 학교별 스키마 (MultiTenancyTests 참고)
+ * 학교마다 반 10개, 반마다 학생 50명, 무작위 학교의 학생 이름순 첫 페이지(20명)를 조회한다.
+ * shared: 학교 조건으로 조회, 학교가 늘수록 student 테이블과 인덱스가 커진다.
+ * schema: 학교 스키마에서 조건 없이 조회, 테이블 크기는 학교 수와 관계없다. 커넥션을 꺼낼 때마다 스키마를 바꾸는 비용이 포함된다.
+ * 엔티티매니저는 조회마다 만든다. (요청마다 엔티티매니저 하나)
+ * 측정(학교 1, 10, 100): schema 107~167µs 로 학교 수와 관계없이 일정, shared 660~860µs 도 이 크기에서는 일정하다.
+ * shared 는 school_class join 과 학교 조건이 더해져 느리다. 각 학교 스키마는 학생 수가 같으므로 schema 는 학교가 늘어도 일정하다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 8, time = 2) // JIT 가 늦게 안정된다.
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TenantBenchmark {
+    private static final int CLASSES = 10;
+    private static final int PERSONS_PER_CLASS = 50;
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"shared", "schema"})
+    String layout;
+
+    @Param({"1", "10", "100"})
+    int schools;
+
+    private EntityManagerFactory emf;
+    private final List<Long> schoolIds = new ArrayList<>();
+    private final List<String> tenants = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        if (layout.equals("shared")) {
+            emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+            BenchmarkDatabase.populate(emf, schools, CLASSES, PERSONS_PER_CLASS);
+            EntityManager em = emf.createEntityManager();
+            schoolIds.addAll(em.createQuery("select s.id from School s", Long.class).getResultList());
+            em.close();
+        } else {
+            emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl(), true, Map.of(
+                    "hibernate.multi_tenant_connection_provider", "support.tenant.SchemaPerTenantConnectionProvider",
+                    "hibernate.tenant_identifier_resolver", "support.tenant.TenantIdentifierResolver"));
+            for (int s = 1; s <= schools; s++) {
+                String tenant = TenantContext.tenantOf(s);
+                TenantSchemas.of(emf).create(tenant);
+                TenantContext.run(tenant, () -> BenchmarkDatabase.populate(emf, 1, CLASSES, PERSONS_PER_CLASS));
+                tenants.add(tenant);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<Person> firstPage() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (layout.equals("shared")) {
+            Long schoolId = schoolIds.get(random.nextInt(schoolIds.size()));
+            return inEntityManager(em -> em.createQuery("select p from Person p join p.myClass c where c.school.id = :schoolId order by p.name", Person.class)
+                    .setParameter("schoolId", schoolId)
+                    .setMaxResults(PAGE_SIZE)
+                    .getResultList());
+        }
+        String tenant = tenants.get(random.nextInt(tenants.size()));
+        return TenantContext.call(tenant, () -> inEntityManager(em -> em.createQuery("select p from Person p order by p.name", Person.class)
+                .setMaxResults(PAGE_SIZE)
+                .getResultList()));
+    }
+
+    private List<Person> inEntityManager(Function<EntityManager, List<Person>> query) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            return query.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package benchmark;
+
+import domain.Person;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import support.tx.UnitOfWorkExecutor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 작업 단위 동시 실행 가상 스레드 vs 플랫폼 스레드 풀 (UnitOfWorkExecutorTests 참고)
+ * tasks 개의 짧은 트랜잭션(조회 또는 이름 변경)을 한번에 제출하고 모두 끝날 때까지 기다린다.
+ * 플랫폼 스레드 풀 크기는 threads, 두 경우 모두 동시에 여는 엔티티매니저 수는 커넥션 풀 크기(10)로 제한된다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnitOfWorkBenchmark {
+    @Param({"virtual", "platform"})
+    String executor;
+    @Param({"50"})
+    int threads;
+    @Param({"1000"})
+    int tasks;
+
+    private EntityManagerFactory emf;
+    private List<Long> ids;
+
+    @Setup
+    public void setup() {
+        emf = BenchmarkDatabase.create(BenchmarkDatabase.newUrl());
+        BenchmarkDatabase.populate(emf, 1, 10, 100);
+        EntityManager em = emf.createEntityManager();
+        ids = em.createQuery("select p.id from Person p", Long.class).getResultList();
+        em.close();
+    }
+
+    @TearDown
+    public void tearDown() {
+        emf.close();
+    }
+
+    @Benchmark
+    public List<String> readAndWrite() {
+        List<Function<EntityManager, String>> works = new ArrayList<>(tasks);
+        for (int i = 0; i < tasks; i++) {
+            Long id = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            String newName = i % 10 == 0 ? "uow" + ThreadLocalRandom.current().nextInt() : null; // 10% 쓰기
+            works.add(em -> {
+                Person person = em.find(Person.class, id);
+                if (newName != null) {
+                    person.changeName(newName);
+                }
+                return person.getName();
+            });
+        }
+        ExecutorService threadPool = executor.equals("virtual")
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(threads);
+        try (UnitOfWorkExecutor unitOfWork = new UnitOfWorkExecutor(emf, threadPool, UnitOfWorkExecutor.poolSize(emf), 5)) {
+            return unitOfWork.invokeAll(works);
+        }
+    }
+}
@@ -10,6 +10,7 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityTransaction;
 import jakarta.persistence.Persistence;
+import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -56,6 +57,10 @@ public class QuerydslTest {
         em.persist(school); // 영속성전이에 의해 연관된 엔티티도 persist
         tx.commit();
     }
+    @AfterClass
+    public static void afterClass() {
+        emf.close();
+    }
 
     @Test
     public void basicQueryDslTest() {